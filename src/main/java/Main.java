@@ -21,8 +21,10 @@ class Main {
                 () -> new Random().nextInt() % 10,
                 (x1, x2) -> -1 * (float)Math.pow(x1 - x2, 2)
         );
+        config.setExecutor(ForkJoinPool.commonPool());
         List<Integer> ps = Selection.positive(config);
         ps.forEach(System.out::println);
+        System.out.println(config.getStatistics());
         */
 
         // 002 - Example of the negative selection algorithm.
@@ -34,8 +36,9 @@ class Main {
                 () -> new Random().nextInt() % 10,
                 (x1, x2) -> -1 * (float)Math.pow(x1 - x2, 2)
         );
-        List<Integer> ps = Selection.negative(config);
-        ps.forEach(System.out::println);
+        DetectorSet<Integer> ds = Selection.detectors(config);
+        ds.getDetectors().forEach(System.out::println);
+        System.out.println("2 is an anomaly: " + ds.isAnomaly(2) + ", 8 is an anomaly: " + ds.isAnomaly(8));
         */
 
         // 003 - Example of the tower sampling with rates.
@@ -54,6 +57,16 @@ class Main {
         }
         */
 
+        // 004 bis - Example of the alias sampling, for many samples from the same distribution.
+        /*
+        AliasSampler sampler = TowerSampling.prepare(new double[]{1D, 1D, 5D}, new RandomSource(42));
+        int[] samples = new int[10];
+        sampler.sample(samples);
+        for (int sample : samples) {
+            System.out.println(sample);
+        }
+        */
+
         // 005 - Example of the Gillespie Algorithm.
         /*
         //
@@ -102,11 +115,131 @@ class Main {
         Gillespie.run(s, 100, 10);
         */
 
+        // 005 bis - Example of the Gillespie Algorithm with the Next Reaction Method.
+        /*
+        class BasicReactionNetwork extends Gillespie.ReactionNetwork {
+
+            private double[] rates = new double[]{1D, 5D};
+            private int na = 100;
+            private int nb = 100;
+            private int nc = 0;
+
+            public
+            void print(String time) {
+                System.out.println("T = " + time);
+                System.out.println("na = " + na + ", nb = " + nb + ", nc = " + nc);
+            }
+
+            public
+            void apply(int action) {
+                if (action == 0) {
+                    na--;
+                    nb--;
+                    nc++;
+                } else {
+                    na++;
+                    nb++;
+                    nc--;
+                }
+            }
+
+            public
+            int getReactionCount() {
+                return 2;
+            }
+
+            public
+            double getPropensity(int reaction) {
+                return (reaction == 0) ? rates[0] * na * nb : rates[1] * nc;
+            }
+
+            public
+            int[] getDependencies(int reaction) {
+                return new int[]{0, 1};
+            }
+        }
+
+        Gillespie.runNextReaction(new BasicReactionNetwork(), 100, 10, new RandomSource(42));
+        */
+
+        // 005 ter - Example of the Gillespie Algorithm with tau-leaping, for large numbers of molecules.
+        /*
+        class LargeSpeciesNetwork extends Gillespie.SpeciesNetwork {
+
+            private double[] rates = new double[]{1e-6, 1D};
+            private long[] n = new long[]{1000000, 1000000, 0};
+
+            public
+            void print(String time) {
+                System.out.println("T = " + time);
+                System.out.println("na = " + n[0] + ", nb = " + n[1] + ", nc = " + n[2]);
+            }
+
+            public
+            void apply(int action) {
+                apply(action, 1);
+            }
+
+            public
+            void apply(int action, long times) {
+                final long d = (action == 0) ? times : -times;
+                n[0] -= d;
+                n[1] -= d;
+                n[2] += d;
+            }
+
+            public
+            int getReactionCount() {
+                return 2;
+            }
+
+            public
+            double getPropensity(int reaction) {
+                return (reaction == 0) ? rates[0] * n[0] * n[1] : rates[1] * n[2];
+            }
+
+            public
+            int[] getDependencies(int reaction) {
+                return new int[]{0, 1};
+            }
+
+            public
+            int getSpeciesCount() {
+                return 3;
+            }
+
+            public
+            long getSpecies(int species) {
+                return n[species];
+            }
+
+            public
+            int[] getChange(int reaction) {
+                return (reaction == 0) ? new int[]{-1, -1, 1} : new int[]{1, 1, -1};
+            }
+        }
+
+        Gillespie.runTauLeaping(new LargeSpeciesNetwork(), 100, 10, 0.03, new RandomSource(42));
+        */
+
         // 006 - Example of the Cellular Automata Algorithm.
         /*
         CellularAutomata.run(10, 10);
         */
 
+        // 006 bis - Example of the Game of Life, a glider advanced by a million generations with HashLife.
+        /*
+        HashLife life = new HashLife(LifeRule.parse("B3/S23"));
+        life.set(1, 0, true);
+        life.set(2, 1, true);
+        life.set(0, 2, true);
+        life.set(1, 2, true);
+        life.set(2, 2, true);
+        CellularAutomata.run(life, 1000000, 250000, (HashLife l) ->
+            System.out.println("generation = " + l.getGeneration() + ", population = " + l.count())
+        );
+        */
+
         // 007 - Example of the Adelman DNA Computing.
         /*
         AdelmanComputing a = new AdelmanComputing();
@@ -209,7 +342,11 @@ class Main {
         /*
         */
         ParticleSwarmOptimisation pso = new ParticleSwarmOptimisation();
+        pso.setTopology(ParticleSwarmOptimisation.Topology.RING);
+        pso.setTargetFitness(0, 1e-9);
+        pso.setStall(500, 0);
         Double[] x = pso.run(100, 10000, 10);
+        System.out.println("Stopped after " + pso.getIterations() + " iterations (" + pso.getStopReason() + ").");
         System.out.println("Fitness: " + pso.fitness(x).toString());
         for (Double c : x) {
             System.out.print(c);
@@ -12,6 +12,24 @@ public class AdelmanComputing {
 
     private Set<Integer> nodes = new HashSet<>();
     private List<Pair<Integer, Integer>> paths = new LinkedList<>();
+    private RandomSource r;
+
+    /**
+     * Construct the Adelman Computing with a random seed.
+     */
+    public
+    AdelmanComputing() {
+        this(RandomSource.create());
+    }
+
+    /**
+     * Construct the Adelman Computing.
+     * @param r the random number generator used to generate the paths.
+     */
+    public
+    AdelmanComputing(RandomSource r) {
+        this.r = r;
+    }
 
     /**
      * Add a node into the graph.
@@ -67,8 +85,6 @@ public class AdelmanComputing {
      */
     private
     Integer[] generatePath() {
-        // Create the random number generator.
-        Random r = new Random();
         // Create the path.
         List<Integer> path = new LinkedList<>();
         // Initialize the current node.
@@ -0,0 +1,130 @@
+package algorithms;
+
+/**
+ * Implementation of the alias method (Walker & Vose), a prepared distribution sampled in constant time.
+ * Building the tables costs O(n), each sample then costs one random number and no allocation.
+ */
+public
+class AliasSampler {
+
+    private final double[] prob;
+    private final int[] alias;
+    private final RandomSource r;
+
+    /**
+     * Construct the sampler with a random seed.
+     * @param rates the array of rates (non-negative, not all zero).
+     */
+    public
+    AliasSampler(final double[] rates) {
+        this(rates, RandomSource.create());
+    }
+
+    /**
+     * Construct the sampler.
+     * @param rates the array of rates (non-negative, not all zero).
+     * @param r the random number generator.
+     */
+    public
+    AliasSampler(final double[] rates, RandomSource r) {
+        final int n = rates.length;
+        this.prob = new double[n];
+        this.alias = new int[n];
+        this.r = r;
+        double s = 0;
+        for (double rate : rates) {
+            if (!(rate >= 0) || Double.isInfinite(rate))
+                throw new IllegalArgumentException("The rates must be finite and non-negative.");
+            s += rate;
+        }
+        if (!(s > 0))
+            throw new IllegalArgumentException("At least one rate must be positive.");
+        // Split the scaled rates into the small (< 1) and large (>= 1) ones, both used as stacks.
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int ns = 0;
+        int nl = 0;
+        for (int i = 0; i < n; i++) {
+            prob[i] = rates[i] * n / s;
+            if (prob[i] < 1)
+                small[ns++] = i;
+            else
+                large[nl++] = i;
+        }
+        // Each small column is filled up by a large one.
+        while (ns > 0 && nl > 0) {
+            final int l = small[--ns];
+            final int g = large[--nl];
+            alias[l] = g;
+            prob[g] = (prob[g] + prob[l]) - 1;
+            if (prob[g] < 1)
+                small[ns++] = g;
+            else
+                large[nl++] = g;
+        }
+        // The remaining columns are full, up to the rounding errors.
+        while (nl > 0) {
+            final int g = large[--nl];
+            prob[g] = 1;
+            alias[g] = g;
+        }
+        while (ns > 0) {
+            final int l = small[--ns];
+            prob[l] = 1;
+            alias[l] = l;
+        }
+    }
+
+    /**
+     * Construct the sampler.
+     * @param rates the array of rates (non-negative, not all zero).
+     * @param r the random number generator.
+     */
+    public
+    AliasSampler(final float[] rates, RandomSource r) {
+        this(toDouble(rates), r);
+    }
+
+    /**
+     * Getter.
+     * @return the number of actions/states.
+     */
+    public
+    int size() {
+        return prob.length;
+    }
+
+    /**
+     * Draw an index.
+     * @return the index of the selected action/state.
+     */
+    public
+    int sample() {
+        final double u = r.nextDouble() * prob.length;
+        final int i = (int) u;
+        return (u - i < prob[i]) ? i : alias[i];
+    }
+
+    /**
+     * Draw as many indices as the length of the output array.
+     * @param out the array where the indices of the selected actions/states are stored.
+     */
+    public
+    void sample(final int[] out) {
+        for (int i = 0; i < out.length; i++)
+            out[i] = sample();
+    }
+
+    /**
+     * Convert an array of floats to an array of doubles.
+     * @param a the array of floats.
+     * @return the array of doubles.
+     */
+    private static
+    double[] toDouble(final float[] a) {
+        double[] d = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            d[i] = a[i];
+        return d;
+    }
+}
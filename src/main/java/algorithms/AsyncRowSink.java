@@ -0,0 +1,160 @@
+package algorithms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Observer of a one dimensional automaton sending every k-th generation to a sink on a background thread.
+ * The stepping thread only copies the packed row into a buffer taken from a fixed pool, and waits only if all the
+ * buffers are queued (i.e. the sink is slower than the automaton).
+ */
+public
+class AsyncRowSink implements Consumer<ElementaryAutomaton>, Closeable {
+
+    /**
+     * Row waiting to be written.
+     */
+    private static
+    class Row {
+        long generation;
+        long[] words;
+        int width;
+    }
+
+    private static final Row END = new Row();
+
+    private final RowSink sink;
+    private final long every;
+    private final BlockingQueue<Row> queue;
+    private final BlockingQueue<Row> free;
+    private final Thread writer;
+    private volatile Throwable error = null;
+    private boolean closed = false;
+
+    /**
+     * Construct the observer with a pool of 64 rows.
+     * @param sink the sink.
+     * @param every the number of generations between two rows sent to the sink.
+     */
+    public
+    AsyncRowSink(RowSink sink, final long every) {
+        this(sink, every, 64);
+    }
+
+    /**
+     * Construct the observer.
+     * @param sink the sink, it is closed with the observer.
+     * @param every the number of generations between two rows sent to the sink.
+     * @param capacity the number of rows which can wait for the sink.
+     */
+    public
+    AsyncRowSink(RowSink sink, final long every, final int capacity) {
+        if (every < 1 || capacity < 1)
+            throw new IllegalArgumentException("The sampling interval and the capacity must be positive.");
+        this.sink = sink;
+        this.every = every;
+        this.queue = new ArrayBlockingQueue<>(capacity + 1);
+        this.free = new ArrayBlockingQueue<>(capacity);
+        for (int i = 0; i < capacity; i++)
+            free.add(new Row());
+        this.writer = new Thread(this::drain, "row-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Copy the current row of the automaton if its generation is sampled.
+     * @param a the automaton.
+     */
+    @Override
+    public
+    void accept(ElementaryAutomaton a) {
+        if (closed)
+            throw new IllegalStateException("The sink is closed.");
+        if (error instanceof IOException)
+            throw new UncheckedIOException("The row cannot be written.", (IOException) error);
+        if (error != null)
+            throw new IllegalStateException("The row cannot be written.", error);
+        if (a.getGeneration() % every != 0)
+            return;
+        try {
+            Row row = free.take();
+            final int words = (a.getWidth() + 63) >>> 6;
+            if (row.words == null || row.words.length != words)
+                row.words = new long[words];
+            a.getWords(row.words);
+            row.generation = a.getGeneration();
+            row.width = a.getWidth();
+            queue.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The sink has been interrupted.", e);
+        }
+    }
+
+    /**
+     * Wait for the queued rows to be written, and close the sink.
+     * @throws IOException if a row or the sink cannot be written.
+     */
+    @Override
+    public
+    void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        Throwable failure = null;
+        try {
+            queue.put(END);
+            writer.join();
+            failure = error;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IllegalStateException("The sink has been interrupted.", e);
+        }
+        // The sink is closed in any case, and its own failure is only reported if nothing failed before.
+        try {
+            sink.close();
+        } catch (IOException | RuntimeException | Error e) {
+            if (failure == null)
+                failure = e;
+            else
+                failure.addSuppressed(e);
+        }
+        if (failure instanceof IOException)
+            throw (IOException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        if (failure != null)
+            throw (RuntimeException) failure;
+    }
+
+    /**
+     * Write the queued rows until the end marker, run by the background thread.
+     */
+    private
+    void drain() {
+        try {
+            while (true) {
+                Row row = queue.take();
+                if (row == END)
+                    return;
+                // After an error, the rows are dropped so the stepping thread is never blocked.
+                if (error == null) {
+                    try {
+                        sink.write(row.generation, row.words, row.width);
+                    } catch (IOException | RuntimeException | Error e) {
+                        // Any failure is kept for the stepping thread, so the pool of rows never runs dry.
+                        error = e;
+                    }
+                }
+                free.put(row);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
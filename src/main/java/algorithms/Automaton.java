@@ -0,0 +1,35 @@
+package algorithms;
+
+/**
+ * Cellular automaton whose generations are computed one after the other, whatever its dimension and its backend.
+ */
+public
+interface Automaton {
+
+    /**
+     * Getter.
+     * @return the number of generations computed so far.
+     */
+    long getGeneration();
+
+    /**
+     * Getter.
+     * @return the number of cells equal to one.
+     */
+    long count();
+
+    /**
+     * Compute the next generation.
+     */
+    void step();
+
+    /**
+     * Compute several generations, override it when the backend can skip generations.
+     * @param n the number of generations.
+     */
+    default
+    void step(final long n) {
+        for (long i = 0; i < n; i++)
+            step();
+    }
+}
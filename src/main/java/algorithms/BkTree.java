@@ -0,0 +1,138 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BK-tree of bitstrings under the Hamming distance, the bitstrings being packed in arrays of longs.
+ * Each child of a node is labelled by its distance to the node, so by the triangle inequality a query at distance d
+ * of a node only visits the children labelled between d - radius and d + radius.
+ */
+public final
+class BkTree implements MetricIndex<long[]> {
+
+    private final long[][] items;
+    // Children of node i: first child, then the next sibling of each child, and the label of each node.
+    private final int[] child;
+    private final int[] sibling;
+    private final int[] label;
+    private int size = 0;
+
+    /**
+     * Build the tree, the duplicated bitstrings are stored once.
+     * @param points the bitstrings, they must have the same number of words and are copied.
+     */
+    public
+    BkTree(List<long[]> points) {
+        final int n = points.size();
+        items = new long[n][];
+        child = new int[n];
+        sibling = new int[n];
+        label = new int[n];
+        Arrays.fill(child, -1);
+        Arrays.fill(sibling, -1);
+        for (long[] x : points) {
+            if (x.length != points.get(0).length)
+                throw new IllegalArgumentException("The bitstrings must have the same number of words.");
+            insert(x.clone());
+        }
+    }
+
+    /**
+     * Compute the Hamming distance between two bitstrings.
+     * @param x the first bitstring.
+     * @param y the second bitstring.
+     * @return the number of bits which differ.
+     */
+    public static
+    int distance(final long[] x, final long[] y) {
+        int d = 0;
+        for (int w = 0; w < x.length; w++)
+            d += Long.bitCount(x[w] ^ y[w]);
+        return d;
+    }
+
+    /**
+     * Insert a bitstring.
+     * @param x the bitstring.
+     */
+    private
+    void insert(long[] x) {
+        if (size == 0) {
+            items[size++] = x;
+            return;
+        }
+        int node = 0;
+        while (true) {
+            final int d = distance(x, items[node]);
+            if (d == 0)
+                return;
+            int c = child[node];
+            while (c != -1 && label[c] != d)
+                c = sibling[c];
+            if (c == -1) {
+                items[size] = x;
+                label[size] = d;
+                sibling[size] = child[node];
+                child[node] = size++;
+                return;
+            }
+            node = c;
+        }
+    }
+
+    @Override
+    public
+    boolean anyWithin(long[] query, double radius) {
+        return radius >= 0 && search(query, (int) Math.floor(radius));
+    }
+
+    @Override
+    public
+    boolean anyCloserThan(long[] query, double radius) {
+        return radius > 0 && search(query, (int) Math.ceil(radius) - 1);
+    }
+
+    /**
+     * Getter.
+     * @return the number of distinct bitstrings in the tree.
+     */
+    @Override
+    public
+    int size() {
+        return size;
+    }
+
+    /**
+     * Look for a bitstring within a distance.
+     * @param query the query.
+     * @param t the maximum distance.
+     * @return true if a bitstring is at a distance lower than or equal to t.
+     */
+    private
+    boolean search(long[] query, final int t) {
+        if (size == 0)
+            return false;
+        if (query.length != items[0].length)
+            throw new IllegalArgumentException("The query must have " + items[0].length + " words.");
+        if (t >= 64 * query.length)
+            return true;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            final int node = stack[--top];
+            final int d = distance(query, items[node]);
+            if (d <= t)
+                return true;
+            for (int c = child[node]; c != -1; c = sibling[c]) {
+                if (label[c] >= d - t && label[c] <= d + t) {
+                    if (top == stack.length)
+                        stack = Arrays.copyOf(stack, 2 * top);
+                    stack[top++] = c;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,19 @@
 package algorithms;
 
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
 
 /**
  * This class emulate one kind of Cellular Automata Algorithm.
  */
 public class CellularAutomata {
+
+    /**
+     * The Wolfram number of the rule emulated: only the neighbourhoods 000 and 001 give a one.
+     */
+    public static final int RULE = 3;
+
     /**
      * Run the Cellular Automata Algorithm.
      *
@@ -14,69 +22,45 @@ public class CellularAutomata {
      */
     public static
     void run(int nbIter, int width) {
-        Random r = new Random();
-        int[] line = new int[width];
-        for (int j = 0; j < line.length; j++)
-            line[j] = Math.abs(r.nextInt() % 2);
-        displayLine(line);
-        for (int i = 0; i < nbIter; i++) {
-            int[] newLine = new int[width];
-            for (int j = 0; j < line.length; j++) {
-                newLine[j] = applyRules(
-                    getValue(line, j - 1),
-                    getValue(line, j),
-                    getValue(line, j + 1)
-                );
-            }
-            line = newLine;
-            displayLine(line);
-        }
+        run(nbIter, width, RandomSource.create());
     }
 
     /**
-     * Display the line in the standard output.
-     * @param line the line to display.
-     */
-    private static
-    void displayLine(int[] line) {
-        for (int i = 0; i < line.length; i++)
-            System.out.print(line[i]);
-        System.out.println();
-    }
-
-    /**
-     * Apply the rules of the Cellular Automata.
-     * @param prev the (j - 1)-th line's value.
-     * @param curr the j-th line's value.
-     * @param next the (j + 1)-th line's value.
-     * @return the transformed value with respect to the rules.
+     * Run the Cellular Automata Algorithm.
+     *
+     * @param nbIter is the number of iteration to run.
+     * @param width is the width of the line to emulate.
+     * @param r is the random number generator used to initialise the line.
      */
-    private static
-    int applyRules(int prev, int curr, int next) {
-        int[][] rules = new int[][]{
-                {0, 0, 1, 1},
-                {0, 0, 0, 1},
-                {1, 1, 0, 0},
-                {0, 1, 0, 0}
-        };
-        for (int[] rule: rules) {
-            if (rule[0] == prev && rule[1] == curr && rule[2] == next)
-                return rule[3];
+    public static
+    void run(int nbIter, int width, RandomSource r) {
+        ElementaryAutomaton line = new ElementaryAutomaton(width, RULE);
+        for (int j = 0; j < width; j++)
+            line.set(j, r.nextInt(2) == 1);
+        try (AsyncRowSink sink = new AsyncRowSink(RowSinks.text(System.out), 1)) {
+            run(line, nbIter, 1, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return 0;
     }
 
     /**
-     * Return the value of
-     * Get the value at the position pos in the array a.
-     * @param a the array.
-     * @param pos the position.
-     * @return the value or zero if the position is not valid.
+     * Run a cellular automaton.
+     * @param a the automaton, in its initial state.
+     * @param nbIter the number of generations to compute.
+     * @param observeRate the number of generations between two observations, -1 to only observe the last one.
+     * @param observer the observer, it receives the initial state, every observeRate-th state and the last one.
+     * @param <A> The automaton's type.
      */
-    private static
-    int getValue(int[] a, int pos) {
-        if (pos < 0 || pos >= a.length)
-            return 0;
-        return a[pos];
+    public static <A extends Automaton>
+    void run(A a, long nbIter, long observeRate, Consumer<? super A> observer) {
+        if (observeRate < 1 && observeRate != -1)
+            throw new IllegalArgumentException("The observation rate must be positive or -1.");
+        final long end = a.getGeneration() + nbIter;
+        observer.accept(a);
+        while (a.getGeneration() < end) {
+            a.step((observeRate == -1) ? end - a.getGeneration() : Math.min(observeRate, end - a.getGeneration()));
+            observer.accept(a);
+        }
     }
 }
@@ -0,0 +1,218 @@
+package algorithms;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Periodic binary snapshot of a run of the genetic algorithm, written on a background thread.
+ * @param <T> The individuals' type.
+ */
+class Checkpoint<T> {
+
+    private static final int MAGIC = 0x47414350;
+    private static final int VERSION = 2;
+
+    /**
+     * State of a run after a generation.
+     * @param <T> The individuals' type.
+     */
+    static
+    class Snapshot<T> {
+        int generation;
+        int ps;
+        long[] random;
+        List<Object[]> individuals = new ArrayList<>();
+        List<double[]> fitness = new ArrayList<>();
+        List<long[]> randoms = new ArrayList<>();
+
+        /**
+         * Add the state of an island, the individuals are shared but the arrays are copied.
+         * @param p the island's population.
+         * @param r the island's random number generator.
+         */
+        void add(Population<T> p, RandomSource r) {
+            individuals.add(Arrays.copyOf(p.individuals, p.size));
+            fitness.add(Arrays.copyOf(p.fitness, p.size));
+            randoms.add(r.getState());
+        }
+    }
+
+    private final File file;
+    private final int every;
+    private final Serializer<T> serializer;
+    private ExecutorService writer = null;
+    private Future<?> pending = null;
+
+    /**
+     * Construct the checkpoint.
+     * @param file the snapshot file, it is replaced atomically by each new snapshot.
+     * @param every the number of generations between two snapshots.
+     * @param serializer the serializer of the individuals.
+     */
+    Checkpoint(File file, final int every, Serializer<T> serializer) {
+        if (every < 1)
+            throw new IllegalArgumentException("The checkpoint interval must be positive.");
+        this.file = file;
+        this.every = every;
+        this.serializer = serializer;
+    }
+
+    /**
+     * Getter.
+     * @return the number of generations between two snapshots.
+     */
+    int getEvery() {
+        return every;
+    }
+
+    /**
+     * Write a snapshot on the background thread, wait for the previous one if it is not written yet.
+     * @param s the snapshot.
+     */
+    void save(final Snapshot<T> s) {
+        await();
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor((Runnable task) -> {
+                Thread t = new Thread(task, "checkpoint");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        pending = writer.submit(() -> {
+            write(s);
+            return null;
+        });
+    }
+
+    /**
+     * Wait for the snapshot being written and stop the background thread.
+     */
+    void close() {
+        try {
+            await();
+        } finally {
+            if (writer != null)
+                writer.shutdown();
+            writer = null;
+        }
+    }
+
+    /**
+     * Wait for the snapshot being written.
+     */
+    private
+    void await() {
+        if (pending == null)
+            return;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The checkpoint has been interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("The checkpoint cannot be written.", (e.getCause() instanceof IOException) ?
+                    (IOException) e.getCause() : new IOException(e.getCause()));
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Write a snapshot into a temporary file and move it over the previous snapshot.
+     * @param s the snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @SuppressWarnings("unchecked")
+    private
+    void write(Snapshot<T> s) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(s.generation);
+            out.writeInt(s.ps);
+            writeState(out, s.random);
+            out.writeInt(s.individuals.size());
+            for (int i = 0; i < s.individuals.size(); i++) {
+                writeState(out, s.randoms.get(i));
+                Object[] individuals = s.individuals.get(i);
+                double[] fitness = s.fitness.get(i);
+                out.writeInt(individuals.length);
+                for (int j = 0; j < individuals.length; j++) {
+                    out.writeDouble(fitness[j]);
+                    serializer.write(out, (T) individuals[j]);
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot.
+     * @param file the snapshot file.
+     * @param serializer the serializer of the individuals.
+     * @param <T> The individuals' type.
+     * @return the snapshot.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    static <T>
+    Snapshot<T> load(File file, Serializer<T> serializer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(file + " is not a checkpoint of the genetic algorithm.");
+            Snapshot<T> s = new Snapshot<>();
+            s.generation = in.readInt();
+            s.ps = in.readInt();
+            s.random = readState(in);
+            final int nbIslands = in.readInt();
+            for (int i = 0; i < nbIslands; i++) {
+                s.randoms.add(readState(in));
+                final int size = in.readInt();
+                Object[] individuals = new Object[size];
+                double[] fitness = new double[size];
+                for (int j = 0; j < size; j++) {
+                    fitness[j] = in.readDouble();
+                    individuals[j] = serializer.read(in);
+                }
+                s.individuals.add(individuals);
+                s.fitness.add(fitness);
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Write the state of a random number generator.
+     * @param out the output.
+     * @param state the state.
+     * @throws IOException if the state cannot be written.
+     */
+    private static
+    void writeState(DataOutput out, long[] state) throws IOException {
+        out.writeInt(state.length);
+        for (long x : state)
+            out.writeLong(x);
+    }
+
+    /**
+     * Read the state of a random number generator.
+     * @param in the input.
+     * @return the state.
+     * @throws IOException if the state cannot be read.
+     */
+    private static
+    long[] readState(DataInput in) throws IOException {
+        long[] state = new long[in.readInt()];
+        for (int i = 0; i < state.length; i++)
+            state[i] = in.readLong();
+        return state;
+    }
+}
@@ -0,0 +1,102 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Sink keeping the density (ratio of cells equal to one) of each row it receives, and their summary statistics.
+ */
+public
+class DensitySink implements RowSink {
+
+    private long[] generations = new long[64];
+    private double[] densities = new double[64];
+    private int size = 0;
+    private double mean = 0;
+    private double m2 = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    @Override
+    public synchronized
+    void write(final long generation, final long[] words, final int width) {
+        long n = 0;
+        for (int w = 0; w < (width + 63) >>> 6; w++)
+            n += Long.bitCount(words[w]);
+        final double d = (double) n / width;
+        if (size == densities.length) {
+            generations = Arrays.copyOf(generations, 2 * size);
+            densities = Arrays.copyOf(densities, 2 * size);
+        }
+        generations[size] = generation;
+        densities[size] = d;
+        ++size;
+        final double delta = d - mean;
+        mean += delta / size;
+        m2 += delta * (d - mean);
+        min = Math.min(min, d);
+        max = Math.max(max, d);
+    }
+
+    /**
+     * Getter.
+     * @return the number of rows received.
+     */
+    public synchronized
+    int getCount() {
+        return size;
+    }
+
+    /**
+     * Getter.
+     * @return the generations of the rows received.
+     */
+    public synchronized
+    long[] getGenerations() {
+        return Arrays.copyOf(generations, size);
+    }
+
+    /**
+     * Getter.
+     * @return the densities of the rows received.
+     */
+    public synchronized
+    double[] getDensities() {
+        return Arrays.copyOf(densities, size);
+    }
+
+    /**
+     * Getter.
+     * @return the mean density.
+     */
+    public synchronized
+    double getMean() {
+        return (size == 0) ? Double.NaN : mean;
+    }
+
+    /**
+     * Getter.
+     * @return the standard deviation of the density.
+     */
+    public synchronized
+    double getStd() {
+        return (size < 2) ? Double.NaN : Math.sqrt(m2 / (size - 1));
+    }
+
+    /**
+     * Getter.
+     * @return the minimum density.
+     */
+    public synchronized
+    double getMin() {
+        return min;
+    }
+
+    /**
+     * Getter.
+     * @return the maximum density.
+     */
+    public synchronized
+    double getMax() {
+        return max;
+    }
+}
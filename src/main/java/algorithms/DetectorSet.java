@@ -0,0 +1,280 @@
+package algorithms;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Detectors generated by the negative selection algorithm, classifying samples as anomalies.
+ * A sample is an anomaly if its similarity with a detector is strictly above the threshold, i.e. if it would have
+ * rejected the detector as a self pattern. Each sample stops at its first matching detector, and batches of samples
+ * are classified in parallel if an executor is set.
+ * @param <T> The samples' type.
+ */
+public
+class DetectorSet<T> {
+
+    private static final int MAGIC = 0x4e534454;
+    private static final int VERSION = 1;
+
+    private final List<T> detectors;
+    private final float s;
+    private final BiFunction<T, T, Float> sf;
+    private MetricIndex<? super T> index = null;
+    private double radius = 0;
+    private ExecutorService executor = null;
+    private int chunkSize = 256;
+
+    /**
+     * Construct the detector set.
+     * @param detectors the detectors, e.g. returned by Selection.negative, they are copied.
+     * @param s the similarity threshold used to generate the detectors.
+     * @param sf the similarity function used to generate the detectors, it must be thread-safe if an executor is set.
+     */
+    public
+    DetectorSet(List<T> detectors, final float s, BiFunction<T, T, Float> sf) {
+        this.detectors = new ArrayList<>(detectors);
+        this.s = s;
+        this.sf = sf;
+    }
+
+    /**
+     * Set an index of the detectors (e.g. a KdTree or a BkTree built from getDetectors()) replacing the similarity
+     * function: a sample is an anomaly if a detector is strictly closer to it than the radius.
+     * @param index the index or null to compare the samples to every detector.
+     * @param radius the distance under which a detector matches.
+     */
+    public
+    void setIndex(MetricIndex<? super T> index, final double radius) {
+        if (!(radius >= 0))
+            throw new IllegalArgumentException("The radius must be non-negative.");
+        this.index = index;
+        this.radius = radius;
+    }
+
+    /**
+     * Set the executor used to classify the batches in parallel (e.g. a ForkJoinPool), with 256 samples per task.
+     * @param executor the executor or null to classify the samples on the calling thread.
+     */
+    public
+    void setExecutor(ExecutorService executor) {
+        setExecutor(executor, 256);
+    }
+
+    /**
+     * Set the executor used to classify the batches in parallel.
+     * @param executor the executor or null to classify the samples on the calling thread.
+     * @param chunkSize the number of samples handled by each task.
+     */
+    public
+    void setExecutor(ExecutorService executor, final int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Getter.
+     * @return the detectors.
+     */
+    public
+    List<T> getDetectors() {
+        return Collections.unmodifiableList(detectors);
+    }
+
+    /**
+     * Getter.
+     * @return the number of detectors.
+     */
+    public
+    int size() {
+        return detectors.size();
+    }
+
+    /**
+     * Getter.
+     * @return the similarity threshold.
+     */
+    public
+    float getThreshold() {
+        return s;
+    }
+
+    /**
+     * Classify a sample.
+     * @param sample the sample.
+     * @return true if the sample is an anomaly.
+     */
+    public
+    boolean isAnomaly(T sample) {
+        if (index != null)
+            return index.anyCloserThan(sample, radius);
+        for (T d : detectors) {
+            if (sf.apply(sample, d) > s)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Classify a batch of samples.
+     * @param samples the samples.
+     * @return the classes of the samples, true for the anomalies.
+     */
+    public
+    boolean[] classify(T[] samples) {
+        boolean[] anomalies = new boolean[samples.length];
+        classify(samples, samples.length, anomalies, chunkSize);
+        return anomalies;
+    }
+
+    /**
+     * Classify a stream of samples, read in batches of one chunk, so an anomaly is reported at the latest when the
+     * chunk size of samples following it have arrived.
+     * @param samples the samples.
+     * @param anomalies the consumer receiving the anomalies, in the order of the stream.
+     * @return the number of samples read.
+     */
+    public
+    long classify(Iterator<? extends T> samples, Consumer<? super T> anomalies) {
+        return classify(samples, anomalies, chunkSize);
+    }
+
+    /**
+     * Classify a stream of samples, read in batches shared between the threads.
+     * @param samples the samples.
+     * @param anomalies the consumer receiving the anomalies, in the order of the stream.
+     * @param batchSize the number of samples read before they are classified, e.g. 1 to report each anomaly as soon
+     * as it arrives.
+     * @return the number of samples read.
+     */
+    public
+    long classify(Iterator<? extends T> samples, Consumer<? super T> anomalies, final int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("The batch size must be positive.");
+        final int nbTasks = (executor == null) ? 1 :
+                (executor instanceof ForkJoinPool) ? ((ForkJoinPool) executor).getParallelism() :
+                Runtime.getRuntime().availableProcessors();
+        // The batch is split between the threads, instead of waiting for one chunk per thread.
+        final int chunk = Math.max(1, (batchSize + nbTasks - 1) / nbTasks);
+        Object[] batch = new Object[batchSize];
+        boolean[] classes = new boolean[batch.length];
+        long count = 0;
+        while (samples.hasNext()) {
+            int size = 0;
+            while (size < batch.length && samples.hasNext())
+                batch[size++] = samples.next();
+            classify(batch, size, classes, chunk);
+            for (int i = 0; i < size; i++) {
+                if (classes[i])
+                    anomalies.accept(cast(batch[i]));
+            }
+            count += size;
+        }
+        return count;
+    }
+
+    /**
+     * Classify the first samples of an array, one task per chunk.
+     * @param samples the samples.
+     * @param size the number of samples.
+     * @param anomalies the array where the class of sample i is stored at index i.
+     * @param chunk the number of samples handled by each task.
+     */
+    private
+    void classify(Object[] samples, final int size, boolean[] anomalies, final int chunk) {
+        if (executor == null || size <= chunk) {
+            for (int i = 0; i < size; i++)
+                anomalies[i] = isAnomaly(cast(samples[i]));
+            return;
+        }
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < size; from += chunk) {
+            final int start = from;
+            final int end = Math.min(from + chunk, size);
+            tasks.add(executor.submit(() -> {
+                for (int i = start; i < end; i++)
+                    anomalies[i] = isAnomaly(cast(samples[i]));
+            }));
+        }
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The classification has been interrupted.", e);
+        } catch (ExecutionException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            throw new IllegalStateException("The classification of the samples failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Cast a sample stored in an array of objects.
+     * @param x the sample.
+     * @return the sample.
+     */
+    @SuppressWarnings("unchecked")
+    private
+    T cast(Object x) {
+        return (T) x;
+    }
+
+    /**
+     * Write the threshold and the detectors into a temporary file and move it over the file.
+     * @param file the file.
+     * @param serializer the serializer of the detectors.
+     * @throws IOException if the detectors cannot be written.
+     */
+    public
+    void save(File file, Serializer<T> serializer) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeFloat(s);
+            out.writeInt(detectors.size());
+            for (T d : detectors)
+                serializer.write(out, d);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a detector set.
+     * @param file the file written by save.
+     * @param serializer the serializer of the detectors.
+     * @param sf the similarity function used to generate the detectors.
+     * @param <T> The samples' type.
+     * @return the detector set.
+     * @throws IOException if the detectors cannot be read.
+     */
+    public static <T>
+    DetectorSet<T> load(File file, Serializer<T> serializer, BiFunction<T, T, Float> sf) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(file + " is not a detector set.");
+            final float s = in.readFloat();
+            final int size = in.readInt();
+            if (size < 0)
+                throw new IOException(file + " has a negative number of detectors.");
+            // The list grows with the detectors actually read, so a corrupted count cannot exhaust the memory.
+            List<T> detectors = new ArrayList<>(Math.min(size, 1 << 16));
+            for (int i = 0; i < size; i++)
+                detectors.add(serializer.read(in));
+            return new DetectorSet<>(detectors, s, sf);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package algorithms;
+
+/**
+ * Implementation of the direct method (Gillespie), the exact stochastic simulation algorithm with a double precision
+ * clock and exponential waiting times.
+ * The propensities are kept in a Fenwick tree. For a reaction network, only the propensities depending on the fired
+ * reaction are recomputed, otherwise all of them are read again after each reaction.
+ */
+public
+class DirectMethod {
+
+    private final Gillespie.GillespieSystem s;
+    private final Gillespie.ReactionNetwork network;
+    private final RandomSource r;
+    private FenwickSampler sampler = null;
+    private int last = -1;
+    private double time = 0;
+    private long steps = 0;
+
+    /**
+     * Construct the engine.
+     * @param s the Gillespie System, it must only be changed by the engine.
+     * @param r the random number generator.
+     */
+    public
+    DirectMethod(Gillespie.GillespieSystem s, RandomSource r) {
+        this.s = s;
+        this.network = (s instanceof Gillespie.ReactionNetwork) ? (Gillespie.ReactionNetwork) s : null;
+        this.r = r;
+    }
+
+    /**
+     * Getter.
+     * @return the current time of the system.
+     */
+    public
+    double getTime() {
+        return time;
+    }
+
+    /**
+     * Getter.
+     * @return the number of reactions fired so far.
+     */
+    public
+    long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Fire the next reaction.
+     * @return false if no reaction can fire anymore.
+     */
+    public
+    boolean step() {
+        return step(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Fire all the reactions happening before a time, and move the system's clock to this time.
+     * @param t the time.
+     */
+    public
+    void advanceTo(final double t) {
+        while (time < t) {
+            if (!step(t))
+                break;
+        }
+        time = Math.max(time, t);
+    }
+
+    /**
+     * Fire the next reaction if it happens before a time.
+     * @param tMax the time that must not be exceeded.
+     * @return true if a reaction has been fired, false if the clock has been moved to tMax or no reaction can fire.
+     */
+    public
+    boolean step(final double tMax) {
+        if (!refresh())
+            return false;
+        final double dt = r.nextExponential() / sampler.total();
+        if (time + dt > tMax) {
+            // The waiting time is memoryless, the draw can be dropped when the clock stops before the reaction.
+            time = tMax;
+            return false;
+        }
+        final int action = sampler.sample();
+        if (action == -1)
+            return false;
+        s.apply(action);
+        last = action;
+        time += dt;
+        ++steps;
+        return true;
+    }
+
+    /**
+     * Update the propensities after the last reaction.
+     * @return false if no reaction can fire.
+     */
+    private
+    boolean refresh() {
+        if (network != null) {
+            if (sampler == null) {
+                sampler = new FenwickSampler(network.getReactionCount(), r);
+                for (int j = 0; j < sampler.size(); j++)
+                    sampler.update(j, network.getPropensity(j));
+            } else if (last != -1) {
+                sampler.update(last, network.getPropensity(last));
+                for (int j : network.getDependencies(last))
+                    sampler.update(j, network.getPropensity(j));
+            }
+        } else {
+            float[] p = s.getReactionsPropencity();
+            if (p == null)
+                return false;
+            if (sampler == null || sampler.size() != p.length)
+                sampler = new FenwickSampler(p.length, r);
+            for (int j = 0; j < p.length; j++) {
+                if (sampler.get(j) != p[j])
+                    sampler.update(j, p[j]);
+            }
+        }
+        last = -1;
+        return sampler.total() > 0;
+    }
+}
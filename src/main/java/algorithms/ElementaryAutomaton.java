@@ -0,0 +1,320 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Elementary (one dimensional, two states, radius one) cellular automaton, for any of the 256 Wolfram rules.
+ * The cells are packed 64 per long, cell j being the bit (j % 64) of the word (j / 64), and a generation is computed
+ * with bitwise operations on whole words, i.e. 64 cells at a time.
+ * Wide lines can be split into stripes of words computed in parallel on a fork-join pool, each stripe reading the words
+ * next to it (halo) in the current line and writing its own words of the next line.
+ */
+public
+class ElementaryAutomaton implements Automaton {
+
+    /**
+     * Value of the cells outside the line.
+     */
+    public enum Boundary {
+        /** The cells outside the line are zero. */
+        FIXED_ZERO,
+        /** The line is a ring, the first and the last cells are neighbours. */
+        PERIODIC,
+        /** The line is mirrored, the first and the last cells are their own neighbours. */
+        REFLECTIVE
+    }
+
+    private final int width;
+    private final int rule;
+    private final long tail;
+    private final long[][] patterns;
+    private final boolean complement;
+    private long[] cells;
+    private long[] next;
+    private long generation = 0;
+    private Boundary boundary = Boundary.FIXED_ZERO;
+    private ForkJoinPool pool = null;
+    private int stripeWords = 4096;
+
+    /**
+     * Construct an automaton whose cells are all zero.
+     * @param width the number of cells.
+     * @param rule the Wolfram rule number, in [0; 255].
+     */
+    public
+    ElementaryAutomaton(final int width, final int rule) {
+        if (width < 1)
+            throw new IllegalArgumentException("The width must be positive.");
+        if (rule < 0 || rule > 255)
+            throw new IllegalArgumentException("The Wolfram rule number must be in [0; 255].");
+        this.width = width;
+        this.rule = rule;
+        this.cells = new long[(width + 63) >>> 6];
+        this.next = new long[cells.length];
+        this.tail = ((width & 63) == 0) ? -1L : (1L << (width & 63)) - 1;
+        // The new state is the union of the neighbourhoods mapped to one, or the complement of the union of the
+        // neighbourhoods mapped to zero, whichever has fewer terms.
+        this.complement = Integer.bitCount(rule) > 4;
+        // Each neighbourhood is stored as the masks flipping the bits which must be zero, (l ^ m[0]) & (c ^ m[1]) &
+        // (r ^ m[2]) is then one where the neighbourhood matches.
+        int n = 0;
+        long[][] p = new long[8][];
+        for (int pattern = 0; pattern < 8; pattern++) {
+            if ((((rule >>> pattern) & 1) == 1) != complement) {
+                p[n++] = new long[]{
+                    ((pattern & 4) != 0) ? 0 : -1L,
+                    ((pattern & 2) != 0) ? 0 : -1L,
+                    ((pattern & 1) != 0) ? 0 : -1L
+                };
+            }
+        }
+        this.patterns = Arrays.copyOf(p, n);
+    }
+
+    /**
+     * Getter.
+     * @return the number of cells.
+     */
+    public
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter.
+     * @return the Wolfram rule number.
+     */
+    public
+    int getRule() {
+        return rule;
+    }
+
+    @Override
+    public
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Set the value of the cells outside the line (by default FIXED_ZERO).
+     * @param boundary the boundary condition.
+     */
+    public
+    void setBoundary(Boundary boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * Compute the generations in parallel, with stripes of 4096 words (32 KB).
+     * @param pool the fork-join pool or null to compute the generations on the calling thread.
+     */
+    public
+    void setParallel(ForkJoinPool pool) {
+        setParallel(pool, 4096);
+    }
+
+    /**
+     * Compute the generations in parallel.
+     * @param pool the fork-join pool or null to compute the generations on the calling thread.
+     * @param stripeWords the number of words of each stripe, it should keep a stripe in the cache.
+     */
+    public
+    void setParallel(ForkJoinPool pool, final int stripeWords) {
+        if (stripeWords < 1)
+            throw new IllegalArgumentException("The stripes must have at least one word.");
+        this.pool = pool;
+        this.stripeWords = stripeWords;
+    }
+
+    /**
+     * Getter.
+     * @param j the index of the cell.
+     * @return the state of the cell.
+     */
+    public
+    boolean get(final int j) {
+        checkIndex(j);
+        return ((cells[j >>> 6] >>> j) & 1L) != 0;
+    }
+
+    /**
+     * Setter.
+     * @param j the index of the cell.
+     * @param alive the new state of the cell.
+     */
+    public
+    void set(final int j, final boolean alive) {
+        checkIndex(j);
+        if (alive)
+            cells[j >>> 6] |= 1L << j;
+        else
+            cells[j >>> 6] &= ~(1L << j);
+    }
+
+    /**
+     * Set each cell to one with probability one half, 64 cells per random number.
+     * @param r the random number generator.
+     */
+    public
+    void randomize(RandomSource r) {
+        for (int w = 0; w < cells.length; w++)
+            cells[w] = r.nextLong();
+        cells[cells.length - 1] &= tail;
+    }
+
+    @Override
+    public
+    long count() {
+        long n = 0;
+        for (long w : cells)
+            n += Long.bitCount(w);
+        return n;
+    }
+
+    /**
+     * Copy the packed cells.
+     * @param words the array receiving the words, cell j is the bit (j % 64) of the word (j / 64).
+     */
+    public
+    void getWords(final long[] words) {
+        System.arraycopy(cells, 0, words, 0, cells.length);
+    }
+
+    @Override
+    public
+    void step() {
+        // The neighbours of the first and of the last cells, injected as ghost bits.
+        final long first = cells[0] & 1L;
+        final long end = (cells[(width - 1) >>> 6] >>> (width - 1)) & 1L;
+        final long left;
+        final long right;
+        switch (boundary) {
+            case PERIODIC:
+                left = end;
+                right = first;
+                break;
+            case REFLECTIVE:
+                left = first;
+                right = end;
+                break;
+            default:
+                left = 0;
+                right = 0;
+        }
+        if (pool == null || cells.length <= stripeWords)
+            stripe(0, cells.length, left, right);
+        else
+            // The fork-join of all the stripes is the barrier between two generations.
+            pool.invoke(new Stripes(0, (cells.length + stripeWords - 1) / stripeWords, left, right));
+        long[] tmp = cells;
+        cells = next;
+        next = tmp;
+        ++generation;
+    }
+
+    /**
+     * Compute the next generation of a range of words.
+     * @param from the first word.
+     * @param to the word after the last one.
+     * @param left the left neighbour of the first cell.
+     * @param right the right neighbour of the last cell.
+     */
+    private
+    void stripe(final int from, final int to, final long left, final long right) {
+        final int last = cells.length - 1;
+        long prev = (from == 0) ? left << 63 : cells[from - 1];
+        long curr = cells[from];
+        for (int w = from; w < to; w++) {
+            final long succ = (w < last) ? cells[w + 1] : 0;
+            // Bit j of l (resp. r) is the left (resp. right) neighbour of cell j.
+            final long l = (curr << 1) | (prev >>> 63);
+            long r = (curr >>> 1) | (succ << 63);
+            if (w == last)
+                r |= right << (width - 1);
+            next[w] = apply(l, curr, r);
+            prev = curr;
+            curr = succ;
+        }
+        if (to == cells.length)
+            next[last] &= tail;
+    }
+
+    /**
+     * Apply the rule to 64 neighbourhoods at once.
+     * @param l the left neighbours.
+     * @param c the cells.
+     * @param r the right neighbours.
+     * @return the new cells.
+     */
+    private
+    long apply(final long l, final long c, final long r) {
+        long out = 0;
+        for (long[] m : patterns)
+            out |= (l ^ m[0]) & (c ^ m[1]) & (r ^ m[2]);
+        return complement ? ~out : out;
+    }
+
+    /**
+     * Range of stripes, split in halves until a single stripe is left.
+     */
+    private
+    class Stripes extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long left;
+        private final long right;
+
+        /**
+         * Construct the range.
+         * @param from the first stripe.
+         * @param to the stripe after the last one.
+         * @param left the left neighbour of the first cell.
+         * @param right the right neighbour of the last cell.
+         */
+        Stripes(final int from, final int to, final long left, final long right) {
+            this.from = from;
+            this.to = to;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected
+        void compute() {
+            if (to - from == 1) {
+                stripe(from * stripeWords, Math.min(to * stripeWords, cells.length), left, right);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new Stripes(from, mid, left, right), new Stripes(mid, to, left, right));
+        }
+    }
+
+    /**
+     * Check the index of a cell.
+     * @param j the index of the cell.
+     */
+    private
+    void checkIndex(final int j) {
+        if (j < 0 || j >= width)
+            throw new IndexOutOfBoundsException("The cell " + j + " is not in [0; " + width + "[.");
+    }
+
+    /**
+     * Return the line of cells, as a string of 0 and 1.
+     * @return the line.
+     */
+    @Override
+    public
+    String toString() {
+        char[] line = new char[width];
+        for (int j = 0; j < width; j++)
+            line[j] = (((cells[j >>> 6] >>> j) & 1L) != 0) ? '1' : '0';
+        return new String(line);
+    }
+}
@@ -0,0 +1,163 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of an ensemble of Gillespie trajectories, per species and per point of a time grid.
+ * The mean and the variance are updated online (Welford) and the quantiles are estimated by P-square, so the
+ * trajectories are never kept in memory.
+ */
+public final
+class EnsembleStatistics {
+
+    private final double[] times;
+    private final int nbSpecies;
+    private final double[] probabilities;
+    private final double[] mean;
+    private final double[] m2;
+    private final P2Quantile[][] quantiles;
+    private long trajectories = 0;
+
+    /**
+     * Construct empty statistics.
+     * @param times the time grid.
+     * @param nbSpecies the number of species.
+     * @param probabilities the probabilities of the estimated quantiles.
+     */
+    EnsembleStatistics(final double[] times, final int nbSpecies, final double[] probabilities) {
+        this.times = times.clone();
+        this.nbSpecies = nbSpecies;
+        this.probabilities = probabilities.clone();
+        final int size = times.length * nbSpecies;
+        this.mean = new double[size];
+        this.m2 = new double[size];
+        this.quantiles = new P2Quantile[probabilities.length][size];
+        for (int k = 0; k < probabilities.length; k++) {
+            for (int i = 0; i < size; i++)
+                quantiles[k][i] = new P2Quantile(probabilities[k]);
+        }
+    }
+
+    /**
+     * Add a trajectory sampled on the time grid.
+     * @param state the species counts, point by point.
+     */
+    synchronized
+    void add(final long[] state) {
+        ++trajectories;
+        for (int i = 0; i < state.length; i++) {
+            final double x = state[i];
+            final double delta = x - mean[i];
+            mean[i] += delta / trajectories;
+            m2[i] += delta * (x - mean[i]);
+            for (P2Quantile[] q : quantiles)
+                q[i].add(x);
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the time grid.
+     */
+    public
+    double[] getTimes() {
+        return times.clone();
+    }
+
+    /**
+     * Getter.
+     * @return the number of species.
+     */
+    public
+    int getSpeciesCount() {
+        return nbSpecies;
+    }
+
+    /**
+     * Getter.
+     * @return the number of trajectories aggregated.
+     */
+    public synchronized
+    long getTrajectories() {
+        return trajectories;
+    }
+
+    /**
+     * Getter.
+     * @param point the index of the point in the time grid.
+     * @param species the index of the species.
+     * @return the mean count.
+     */
+    public synchronized
+    double getMean(final int point, final int species) {
+        return mean[index(point, species)];
+    }
+
+    /**
+     * Getter.
+     * @param point the index of the point in the time grid.
+     * @param species the index of the species.
+     * @return the sample variance of the count (NaN with less than two trajectories).
+     */
+    public synchronized
+    double getVariance(final int point, final int species) {
+        return (trajectories < 2) ? Double.NaN : m2[index(point, species)] / (trajectories - 1);
+    }
+
+    /**
+     * Getter.
+     * @param point the index of the point in the time grid.
+     * @param species the index of the species.
+     * @return the sample standard deviation of the count.
+     */
+    public
+    double getStd(final int point, final int species) {
+        return Math.sqrt(getVariance(point, species));
+    }
+
+    /**
+     * Getter.
+     * @param point the index of the point in the time grid.
+     * @param species the index of the species.
+     * @param p the probability of the quantile, it must be one of the probabilities given to the ensemble.
+     * @return the estimated quantile of the count.
+     */
+    public synchronized
+    double getQuantile(final int point, final int species, final double p) {
+        for (int k = 0; k < probabilities.length; k++) {
+            if (probabilities[k] == p)
+                return quantiles[k][index(point, species)].get();
+        }
+        throw new IllegalArgumentException("The quantile " + p + " is not estimated, the estimated quantiles are " +
+                Arrays.toString(probabilities) + ".");
+    }
+
+    /**
+     * Compute the index of a point and a species in the flat arrays.
+     * @param point the index of the point in the time grid.
+     * @param species the index of the species.
+     * @return the index.
+     */
+    private
+    int index(final int point, final int species) {
+        if (point < 0 || point >= times.length || species < 0 || species >= nbSpecies)
+            throw new IndexOutOfBoundsException("No statistics for point " + point + " and species " + species + ".");
+        return point * nbSpecies + species;
+    }
+
+    @Override
+    public synchronized
+    String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("trajectories = ").append(trajectories);
+        for (int t = 0; t < times.length; t++) {
+            sb.append(System.lineSeparator()).append("T = ").append(times[t]);
+            for (int s = 0; s < nbSpecies; s++) {
+                sb.append(String.format(", x%d = %.4g", s, mean[index(t, s)]));
+                if (trajectories > 1)
+                    sb.append(String.format(" +/- %.4g", Math.sqrt(m2[index(t, s)] / (trajectories - 1))));
+            }
+        }
+        return sb.toString();
+    }
+}
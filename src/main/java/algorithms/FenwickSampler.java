@@ -0,0 +1,156 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Weighted sampler whose weights can change (Fenwick tree of the rates).
+ * Updating, removing and sampling cost O(log n), instead of rebuilding a tower of rates in O(n).
+ */
+public
+class FenwickSampler {
+
+    private final double[] weights;
+    private final double[] tree;
+    private final int mask;
+    private final RandomSource r;
+    private int updates = 0;
+
+    /**
+     * Construct a sampler whose weights are all zero.
+     * @param n the number of actions/states.
+     * @param r the random number generator.
+     */
+    public
+    FenwickSampler(final int n, RandomSource r) {
+        this.weights = new double[n];
+        this.tree = new double[n + 1];
+        this.mask = (n == 0) ? 0 : Integer.highestOneBit(n);
+        this.r = r;
+    }
+
+    /**
+     * Construct a sampler.
+     * @param rates the initial array of rates.
+     * @param r the random number generator.
+     */
+    public
+    FenwickSampler(final double[] rates, RandomSource r) {
+        this(rates.length, r);
+        for (int i = 0; i < rates.length; i++) {
+            check(rates[i]);
+            weights[i] = rates[i];
+        }
+        rebuild();
+    }
+
+    /**
+     * Getter.
+     * @return the number of actions/states.
+     */
+    public
+    int size() {
+        return weights.length;
+    }
+
+    /**
+     * Getter.
+     * @param i the index of the action/state.
+     * @return the rate of the action/state.
+     */
+    public
+    double get(final int i) {
+        return weights[i];
+    }
+
+    /**
+     * Change the rate of an action/state.
+     * @param i the index of the action/state.
+     * @param w the new rate.
+     */
+    public
+    void update(final int i, final double w) {
+        check(w);
+        final double delta = w - weights[i];
+        if (delta == 0)
+            return;
+        weights[i] = w;
+        for (int j = i + 1; j < tree.length; j += j & -j)
+            tree[j] += delta;
+        // The increments accumulate rounding errors, the tree is recomputed from the rates from time to time.
+        if (++updates >= Math.max(weights.length, 1024))
+            rebuild();
+    }
+
+    /**
+     * Remove an action/state, it will not be sampled until its rate is updated again.
+     * @param i the index of the action/state.
+     */
+    public
+    void remove(final int i) {
+        update(i, 0);
+    }
+
+    /**
+     * Getter.
+     * @return the sum of the rates.
+     */
+    public
+    double total() {
+        double s = 0;
+        for (int j = weights.length; j > 0; j -= j & -j)
+            s += tree[j];
+        return s;
+    }
+
+    /**
+     * Draw an index with a probability proportional to its rate.
+     * @return the index of the selected action/state or -1 if all the rates are zero.
+     */
+    public
+    int sample() {
+        final double total = total();
+        if (!(total > 0))
+            return -1;
+        while (true) {
+            // Find the first index whose prefix sum exceeds u.
+            double u = r.nextDouble() * total;
+            int pos = 0;
+            for (int step = mask; step != 0; step >>= 1) {
+                final int next = pos + step;
+                if (next < tree.length && tree[next] <= u) {
+                    pos = next;
+                    u -= tree[next];
+                }
+            }
+            // A rounding error can land on a removed rate, the draw is then repeated.
+            if (pos < weights.length && weights[pos] > 0)
+                return pos;
+        }
+    }
+
+    /**
+     * Recompute the tree from the rates in O(n).
+     */
+    public
+    void rebuild() {
+        Arrays.fill(tree, 0);
+        for (int i = 0; i < weights.length; i++) {
+            final int j = i + 1;
+            tree[j] += weights[i];
+            final int parent = j + (j & -j);
+            if (parent < tree.length)
+                tree[parent] += tree[j];
+        }
+        updates = 0;
+    }
+
+    /**
+     * Check the validity of a rate.
+     * @param w the rate.
+     */
+    private static
+    void check(final double w) {
+        if (!(w >= 0) || Double.isInfinite(w))
+            throw new IllegalArgumentException("The rates must be finite and non-negative.");
+    }
+}
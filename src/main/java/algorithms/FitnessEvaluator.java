@@ -0,0 +1,191 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Evaluation stage of the genetic algorithm, score a whole population at once.
+ * @param <T> The individuals' type.
+ */
+class FitnessEvaluator<T> {
+
+    private Function<T, Double> fitness;
+    private GeneticAlgorithm.BatchFitness<T> batchFitness = null;
+    private ExecutorService executor = null;
+    private int chunkSize = 16;
+    private volatile Map<T, Double> cache = null;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Construct the evaluator.
+     * @param fitness the fitness function.
+     */
+    FitnessEvaluator(Function<T, Double> fitness) {
+        this.fitness = fitness;
+    }
+
+    /**
+     * Set the batch fitness function, it overrides the fitness function when scoring a population.
+     * @param batchFitness the batch fitness function or null to score the individuals one by one.
+     */
+    void setBatchFitness(GeneticAlgorithm.BatchFitness<T> batchFitness) {
+        this.batchFitness = batchFitness;
+    }
+
+    /**
+     * Set the executor used to score the individuals in parallel.
+     * @param executor the executor or null to score the individuals on the calling thread.
+     * @param chunkSize the number of individuals scored by each task.
+     */
+    void setExecutor(ExecutorService executor, int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the size of the genotype to fitness memo, the least recently used genotypes are forgotten first.
+     * The individuals' type must implement equals and hashCode for the memo to be useful.
+     * @param capacity the maximum number of genotypes remembered or zero to disable the memo.
+     */
+    void setCacheSize(final int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("The cache size must be positive or zero.");
+        if (capacity == 0) {
+            cache = null;
+            return;
+        }
+        cache = new LinkedHashMap<T, Double>(16, 0.75F, true) {
+            @Override
+            protected
+            boolean removeEldestEntry(Map.Entry<T, Double> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Getter.
+     * @return the number of individuals whose fitness has been found in the memo.
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Getter.
+     * @return the number of individuals whose fitness has been computed.
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Score the individuals of the population from an index to its end, the genotypes already in the memo are not
+     * evaluated again.
+     * @param p the population.
+     * @param from the index of the first individual to score.
+     */
+    void score(Population<T> p, final int from) {
+        final Map<T, Double> cache = this.cache;
+        if (cache == null) {
+            evaluate(p.view(from), p.fitness, from);
+            misses.add(p.size - from);
+            return;
+        }
+        // Look for the known genotypes, the duplicates of an unknown genotype are evaluated once.
+        Map<T, Integer> unknown = new HashMap<>();
+        List<T> toEvaluate = new ArrayList<>();
+        synchronized (cache) {
+            for (int i = from; i < p.size; i++) {
+                final T x = p.get(i);
+                final Double f = cache.get(x);
+                if (f != null) {
+                    p.fitness[i] = f;
+                } else if (!unknown.containsKey(x)) {
+                    unknown.put(x, toEvaluate.size());
+                    toEvaluate.add(x);
+                }
+            }
+        }
+        double[] f = new double[toEvaluate.size()];
+        evaluate(toEvaluate, f, 0);
+        synchronized (cache) {
+            for (int i = 0; i < f.length; i++)
+                cache.put(toEvaluate.get(i), f[i]);
+        }
+        for (int i = from; i < p.size; i++) {
+            final Integer index = unknown.get(p.get(i));
+            if (index != null)
+                p.fitness[i] = f[index];
+        }
+        misses.add(f.length);
+        hits.add(p.size - from - f.length);
+    }
+
+    /**
+     * Compute the fitness of each individual of the population.
+     * The i-th score always belongs to the i-th individual, so the result does not depend on the scheduling.
+     * @param p the population.
+     * @param f the array where the fitness are stored.
+     * @param offset the index of the first individual's fitness in f.
+     */
+    void evaluate(List<T> p, final double[] f, final int offset) {
+        if (p.isEmpty())
+            return;
+        if (batchFitness != null) {
+            double[] bf = batchFitness.apply(p);
+            if (bf.length != p.size())
+                throw new IllegalStateException("The batch fitness returned " + bf.length + " scores for " + p.size() + " individuals.");
+            System.arraycopy(bf, 0, f, offset, bf.length);
+            return;
+        }
+        final List<T> a = (p instanceof RandomAccess) ? p : new ArrayList<>(p);
+        if (executor == null || a.size() <= chunkSize) {
+            evaluate(a, f, offset, 0, a.size());
+            return;
+        }
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < a.size(); from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(from + chunkSize, a.size());
+            tasks.add(executor.submit(() -> evaluate(a, f, offset, start, end)));
+        }
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The evaluation has been interrupted.", e);
+        } catch (ExecutionException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            throw new IllegalStateException("The evaluation of the population failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Compute the fitness of the individuals between two indices.
+     * @param p the population.
+     * @param f the array where the fitness are stored.
+     * @param offset the index of the first individual's fitness in f.
+     * @param from the first index (inclusive).
+     * @param to the last index (exclusive).
+     */
+    private
+    void evaluate(List<T> p, double[] f, final int offset, final int from, final int to) {
+        for (int i = from; i < to; i++)
+            f[offset + i] = fitness.apply(p.get(i));
+    }
+}
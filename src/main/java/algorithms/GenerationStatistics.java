@@ -0,0 +1,132 @@
+package algorithms;
+
+/**
+ * Statistics of the population of the genetic algorithm after a generation.
+ * @param <T> The individuals' type.
+ */
+public final
+class GenerationStatistics<T> {
+
+    private final int generation;
+    private final ScoredIndividual<T> best;
+    private final double mean;
+    private final double std;
+    private final double diversity;
+    private final long wallTime;
+    private final long evaluations;
+    private final double evaluationsPerSecond;
+
+    /**
+     * Construct the statistics.
+     * @param generation the number of generations run so far.
+     * @param best the fittest individual.
+     * @param mean the mean fitness.
+     * @param std the standard deviation of the fitness.
+     * @param diversity the ratio of distinct genotypes in the population.
+     * @param wallTime the time elapsed since the beginning of the run (in nanoseconds).
+     * @param evaluations the number of fitness evaluations since the beginning of the run.
+     * @param evaluationsPerSecond the evaluation throughput since the last statistics.
+     */
+    GenerationStatistics(
+        final int generation,
+        final ScoredIndividual<T> best,
+        final double mean,
+        final double std,
+        final double diversity,
+        final long wallTime,
+        final long evaluations,
+        final double evaluationsPerSecond
+    ) {
+        this.generation = generation;
+        this.best = best;
+        this.mean = mean;
+        this.std = std;
+        this.diversity = diversity;
+        this.wallTime = wallTime;
+        this.evaluations = evaluations;
+        this.evaluationsPerSecond = evaluationsPerSecond;
+    }
+
+    /**
+     * Getter.
+     * @return the number of generations run so far.
+     */
+    public
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Getter.
+     * @return the fittest individual of the population.
+     */
+    public
+    ScoredIndividual<T> getBest() {
+        return best;
+    }
+
+    /**
+     * Getter.
+     * @return the mean fitness of the population.
+     */
+    public
+    double getMean() {
+        return mean;
+    }
+
+    /**
+     * Getter.
+     * @return the standard deviation of the population's fitness.
+     */
+    public
+    double getStd() {
+        return std;
+    }
+
+    /**
+     * Getter.
+     * @return the ratio of distinct genotypes in the population (one means no duplicates).
+     */
+    public
+    double getDiversity() {
+        return diversity;
+    }
+
+    /**
+     * Getter.
+     * @return the time elapsed since the beginning of the run (in nanoseconds).
+     */
+    public
+    long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Getter.
+     * @return the number of fitness evaluations since the beginning of the run.
+     */
+    public
+    long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Getter.
+     * @return the number of fitness evaluations per second since the previous statistics.
+     */
+    public
+    double getEvaluationsPerSecond() {
+        return evaluationsPerSecond;
+    }
+
+    @Override
+    public
+    String toString() {
+        return "Generation " + generation +
+                ": best = " + best.getFitness() +
+                ", mean = " + mean +
+                ", std = " + std +
+                ", diversity = " + diversity +
+                ", evaluations/s = " + evaluationsPerSecond;
+    }
+}
@@ -1,13 +1,16 @@
 package algorithms;
 
-import org.apache.commons.lang3.ArrayUtils;
-
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 /**
@@ -16,9 +19,66 @@ import java.util.stream.Stream;
  */
 public class GeneticAlgorithm<T> {
 
+    /**
+     * Fitness function scoring a whole population at once (e.g. to vectorise the computation).
+     * @param <T> The individuals' type.
+     */
+    @FunctionalInterface
+    public
+    interface BatchFitness<T> {
+
+        /**
+         * Compute the fitness of each individual.
+         * @param individuals the individuals to score.
+         * @return the fitness of each individual, in the same order.
+         */
+        double[] apply(List<T> individuals);
+    }
+
+    /**
+     * Topology of the migrations between the islands.
+     */
+    public
+    enum Topology {
+        /** Each island sends its emigrants to the next island. */
+        RING,
+        /** Each island sends its emigrants to all the other islands. */
+        FULLY_CONNECTED,
+        /** Each island sends its emigrants to another island drawn at each migration. */
+        RANDOM
+    }
+
+    /**
+     * Strategy in charge of the selection of a population part.
+     * @param <T> The individuals' type.
+     */
+    @FunctionalInterface
+    private
+    interface Selector<T> {
+
+        /**
+         * Select a part of the population.
+         * @param p the population, the strategy is allowed to reorder or remove its individuals.
+         * @param n the number of individuals to select.
+         * @param np the (empty) population where the selected individuals are added.
+         * @param r the random number generator of the population.
+         */
+        void select(Population<T> p, int n, Population<T> np, Random r);
+    }
+
     private Supplier<T> generator;
-    private Function<T, Double> fitness;
-    private BiFunction<List<T>, Integer, List<T>> selection;
+    private FitnessEvaluator<T> evaluator;
+    private Selector<T> selection;
+    private RandomSource random = RandomSource.create();
+    private final ThreadLocal<RandomSource> current = new ThreadLocal<>();
+    private int nbIslands = 1;
+    private int migrationInterval = 1;
+    private int migrants = 0;
+    private Topology topology = Topology.RING;
+    private List<Consumer<GenerationStatistics<T>>> listeners = new ArrayList<>();
+    private List<StoppingCriterion<T>> criteria = new ArrayList<>();
+    private int generationCount = 0;
+    private Checkpoint<T> checkpoint = null;
     private List<Function<T, T>> varOp1 = new ArrayList<>();
     private List<BiFunction<T, T, T>> varOp2 = new ArrayList<>();
 
@@ -30,10 +90,117 @@ public class GeneticAlgorithm<T> {
     public
     GeneticAlgorithm(Supplier<T> generator, Function<T, Double> fitness) {
         this.generator = generator;
-        this.fitness = fitness;
+        this.evaluator = new FitnessEvaluator<>(fitness);
         setFittestSelection();
     }
 
+    /**
+     * Set a fitness function scoring the whole population at once, it replaces the constructor's fitness function.
+     * @param batchFitness the batch fitness function or null to score the individuals one by one.
+     */
+    public
+    void setBatchFitness(BatchFitness<T> batchFitness) {
+        evaluator.setBatchFitness(batchFitness);
+    }
+
+    /**
+     * Set the executor used to score the population in parallel (e.g. a ForkJoinPool).
+     * @param executor the executor or null to score the population on the calling thread.
+     */
+    public
+    void setExecutor(ExecutorService executor) {
+        setExecutor(executor, 16);
+    }
+
+    /**
+     * Set the executor used to score the population in parallel (e.g. a ForkJoinPool).
+     * @param executor the executor or null to score the population on the calling thread.
+     * @param chunkSize the number of individuals scored by each task.
+     */
+    public
+    void setExecutor(ExecutorService executor, final int chunkSize) {
+        evaluator.setExecutor(executor, chunkSize);
+    }
+
+    /**
+     * Split the evolution into islands, each island evolves its own population on its own thread.
+     * The generator, the fitness and the variation operators are shared by the islands and must be thread-safe.
+     * @param nbIslands the number of islands (one means a single panmictic population).
+     * @param migrationInterval the number of generations between two migrations.
+     * @param migrants the number of fittest individuals sent by each island during a migration.
+     * @param topology the destination of the migrants.
+     */
+    public
+    void setIslands(final int nbIslands, final int migrationInterval, final int migrants, Topology topology) {
+        if (nbIslands < 1 || migrationInterval < 1 || migrants < 0)
+            throw new IllegalArgumentException("The islands' configuration is not valid.");
+        this.nbIslands = nbIslands;
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+        this.topology = topology;
+    }
+
+    /**
+     * Set the random number generator of the algorithm, each island draws from a generator split from it.
+     * @param random the random number generator.
+     */
+    public
+    void setRandomSource(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Return the random number generator of the island evolved by the calling thread.
+     * The generator and the variation operators should draw from it, so that a run is reproducible from a single seed.
+     * @return the island's generator or the algorithm's generator if the calling thread does not evolve an island.
+     */
+    public
+    RandomSource getRandom() {
+        RandomSource r = current.get();
+        return (r == null) ? random : r;
+    }
+
+    /**
+     * Add a listener receiving the statistics of the population during the run.
+     * The statistics are computed after each generation, or after each migration when the islands are enabled.
+     * @param listener the listener.
+     */
+    public
+    void addGenerationListener(Consumer<GenerationStatistics<T>> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Add a criterion stopping the run before the maximum number of generations (e.g. StoppingCriterion.stall(k)).
+     * The run stops as soon as one of the criteria is met.
+     * @param criterion the criterion.
+     */
+    public
+    void addStoppingCriterion(StoppingCriterion<T> criterion) {
+        this.criteria.add(criterion);
+    }
+
+    /**
+     * Save periodically the state of the run (populations, fitness, generation and random number generators), so that
+     * it can be resumed after a crash. The snapshots are written on a background thread.
+     * @param file the checkpoint file or null to disable the checkpoints.
+     * @param every the number of generations between two snapshots (rounded up to the migration interval).
+     * @param serializer the serializer of the individuals.
+     */
+    public
+    void setCheckpoint(File file, final int every, Serializer<T> serializer) {
+        this.checkpoint = (file == null) ? null : new Checkpoint<>(file, every, serializer);
+    }
+
+    /**
+     * Getter.
+     * @return the number of generations run by the last call to run.
+     */
+    public
+    int getGenerationCount() {
+        return generationCount;
+    }
+
     /**
      * Add a variation operator taking one individual as parameters and return a new one (e.g. mutation).
      * @param varOp the operator.
@@ -54,41 +221,54 @@ public class GeneticAlgorithm<T> {
 
     /**
      * Generate a random number between minV and maxV.
+     * @param r the random number generator.
      * @param minV the minimum value of value generated.
      * @param maxV the maximum value of value generated.
      * @return the value generated.
      */
-    private
-    int rand(final int minV, final int maxV) {
-        return minV + new Random().nextInt(maxV - minV + 1);
+    private static
+    int rand(Random r, final int minV, final int maxV) {
+        return minV + r.nextInt(maxV - minV + 1);
     }
 
     /**
      * Select randomly an element of the list.
+     * @param r the random number generator.
      * @param l the list.
      * @param <U> the type of elements of the list.
      * @return the selected value.
      */
-    private <U>
-    U randFrom(List<U> l) {
-        return l.get(rand(0, l.size() - 1));
+    private static <U>
+    U randFrom(Random r, List<U> l) {
+        return l.get(rand(r, 0, l.size() - 1));
     }
 
     /**
-     * Generate a population.
-     * @param popSize the population's size.
-     * @return the population.
+     * Draw the keys of a weighted sampling without replacement (Efraimidis & Spirakis).
+     * Sorting the individuals by decreasing key is equivalent to drawing them one by one with a probability
+     * proportional to their weight, among the individuals not drawn yet.
+     * @param p the population, its keys are overwritten by the weights and then by the sampling keys.
+     * @param r the random number generator.
      */
     private
-    List<T> generation(final int popSize) {
-        List<T> pop = new LinkedList<>();
-
-        int i = 0;
-        while (i < popSize) {
-            pop.add(generator.get());
-            ++i;
+    void weightedKeys(Population<T> p, Random r) {
+        for (int i = 0; i < p.size; i++) {
+            final double u = 1D - r.nextDouble(); // Draw a random number in ]0; 1].
+            p.keys[i] = (p.keys[i] > 0) ? Math.log(u) / p.keys[i] : Double.NEGATIVE_INFINITY;
         }
-        return pop;
+    }
+
+    /**
+     * Add the individuals in the order of the scratch buffer to the new population.
+     * @param p the population.
+     * @param n the number of individuals to add.
+     * @param np the new population.
+     */
+    private
+    void addInOrder(Population<T> p, final int n, Population<T> np) {
+        final int m = Math.min(n, p.size);
+        for (int i = 0; i < m; i++)
+            np.add(p, p.order[i]);
     }
 
     /**
@@ -96,24 +276,35 @@ public class GeneticAlgorithm<T> {
      */
     public
     void setFittestSelection() {
-        this.selection = (List<T> p, Integer n) -> {
-            List<T> np = new LinkedList<>();
-            List<Double> f = p.stream().map((x) -> fitness.apply(x)).collect(Collectors.toList());
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
+            final int m = Math.min(n, p.size);
+            for (int i = 0; i < p.size; i++)
+                p.order[i] = i;
+            Population.selectTop(p.order, p.fitness, m, p.size);
+            Population.sortDescending(p.order, p.fitness, m);
+            addInOrder(p, m, np);
+        };
+    }
 
-            int i = 0;
-            while (i < n) {
-                try {
-                    final int index = f.indexOf(Collections.max(f));
-                    np.add(p.get(index));
-                    p.remove(index);
-                    f.remove(index);
-                } catch (NoSuchElementException e) {
-                    System.err.println(e.getMessage());
-                    break;
-                }
-                ++i;
+    /**
+     * Change the function in charge of the selection of a population part.
+     * The n fittest individuals survive, only the fittest of them is guaranteed to be selected first.
+     */
+    public
+    void setTruncationSelection() {
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
+            final int m = Math.min(n, p.size);
+            for (int i = 0; i < p.size; i++)
+                p.order[i] = i;
+            Population.selectTop(p.order, p.fitness, m, p.size);
+            int best = 0;
+            for (int i = 1; i < m; i++) {
+                if (Population.before(p.order[i], p.order[best], p.fitness))
+                    best = i;
             }
-            return np;
+            if (m != 0)
+                Population.swap(p.order, 0, best);
+            addInOrder(p, m, np);
         };
     }
 
@@ -122,111 +313,384 @@ public class GeneticAlgorithm<T> {
      */
     public
     void setRouletteWheelSelection() {
-        this.selection = (List<T> p, Integer n) -> {
-            List<Double> fd = p.stream().map((x) -> fitness.apply(x)).collect(Collectors.toList());
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < p.size; i++) {
+                min = Math.min(min, p.fitness[i]);
+                max = Math.max(max, p.fitness[i]);
+            }
+            for (int i = 0; i < p.size; i++) {
+                p.keys[i] = (max > min) ? (p.fitness[i] - min) / (max - min) : 1D;
+                p.order[i] = i;
+            }
+            weightedKeys(p, r);
+            Population.sortDescending(p.order, p.keys, p.size);
+            addInOrder(p, n, np);
+        };
+    }
 
-            double min = Collections.min(fd);
-            double max = Collections.max(fd);
+    /**
+     * Change the function in charge of the selection of a population part.
+     */
+    public
+    void setRankBasedSelection() {
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
+            // The fittest individual has the rate (size - 1) and the least fit has the rate zero.
+            for (int i = 0; i < p.size; i++)
+                p.order[i] = i;
+            Population.sortDescending(p.order, p.fitness, p.size);
+            for (int i = 0; i < p.size; i++)
+                p.keys[p.order[i]] = p.size - 1 - i;
+            for (int i = 0; i < p.size; i++)
+                p.order[i] = i;
+            weightedKeys(p, r);
+            Population.sortDescending(p.order, p.keys, p.size);
+            addInOrder(p, n, np);
+        };
+    }
 
-            List<Float> ff = fd.stream()
-                    .map((Double x) -> (x - min) / (max - min))
-                    .map((Double x) -> Float.valueOf(x.toString()))
-                    .collect(Collectors.toList());
+    /**
+     * Change the function in charge of the selection of a population part.
+     * Each individual is selected with a probability proportional to its weight, the weights being the normalised
+     * fitness (as in the roulette wheel). A single random number places n equally spaced pointers on the wheel.
+     */
+    public
+    void setStochasticUniversalSampling() {
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
+            if (p.size == 0 || n <= 0)
+                return;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < p.size; i++) {
+                min = Math.min(min, p.fitness[i]);
+                max = Math.max(max, p.fitness[i]);
+            }
+            // Prefix sum of the weights.
+            double sum = 0;
+            for (int i = 0; i < p.size; i++) {
+                sum += (max > min) ? (p.fitness[i] - min) / (max - min) : 1D;
+                p.keys[i] = sum;
+            }
+            final double step = sum / n;
+            double pointer = r.nextDouble() * step;
+            int index = 0;
+            for (int i = 0; i < n; i++) {
+                while (index < p.size - 1 && p.keys[index] <= pointer)
+                    ++index;
+                np.add(p, index);
+                pointer += step;
+            }
+        };
+    }
 
-            List<T> np = new LinkedList<>();
+    /**
+     * Change the function in charge of the selection of a population part.
+     * Binary tournaments, the winners can be selected several times.
+     */
+    public
+    void setTournementSelection() {
+        setTournementSelection(2, true);
+    }
+
+    /**
+     * Change the function in charge of the selection of a population part.
+     * @param k the number of individuals (drawn uniformly) taking part in each tournament.
+     * @param replacement true if the winners can be selected again, false if they are removed from the population.
+     */
+    public
+    void setTournementSelection(final int k, final boolean replacement) {
+        if (k < 1)
+            throw new IllegalArgumentException("The tournament size must be positive.");
+        this.selection = (Population<T> p, int n, Population<T> np, Random r) -> {
             int i = 0;
-            while (i < n) {
-                try {
-                    final int index = TowerSampling.rate(ArrayUtils.toPrimitive(ff.toArray(new Float[0])));
-                    np.add(p.get(index));
-                    p.remove(index);
-                    ff.remove(index);
-                } catch (NoSuchElementException e) {
-                    System.err.println(e.getMessage());
-                    break;
+            while (i < n && p.size != 0) {
+                int winner = r.nextInt(p.size);
+                for (int j = 1; j < k; j++) {
+                    final int challenger = r.nextInt(p.size);
+                    if (p.fitness[challenger] > p.fitness[winner])
+                        winner = challenger;
                 }
+                np.add(p, winner);
+                if (!replacement)
+                    p.swapRemove(winner);
                 ++i;
             }
-            return np;
         };
     }
 
     /**
-     * Change the function in charge of the selection of a population part.
+     * Set the size of the memo storing the fitness of the genotypes already evaluated.
+     * It avoids to score again the duplicated genotypes, which are common once the population converged.
+     * @param capacity the maximum number of genotypes remembered or zero to disable the memo.
      */
     public
-    void setRankBasedSelection() {
-        this.selection = (List<T> p, Integer n) -> {
-            Map<T, Double> popAndFit = new HashMap<>();
-            for (T i: p)
-                popAndFit.put(i, fitness.apply(i));
-
-            List<T> rankedPop = popAndFit.entrySet().stream()
-                    .sorted(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-
-            List<Float> rates = Stream
-                    .iterate(0.0F, i -> i + 1.0F)
-                    .limit(rankedPop.size())
-                    .collect(Collectors.toList());
-
-            List<T> np = new LinkedList<>();
+    void setFitnessCacheSize(final int capacity) {
+        evaluator.setCacheSize(capacity);
+    }
+
+    /**
+     * Getter.
+     * @return the number of individuals whose fitness has been found in the memo instead of being computed.
+     */
+    public
+    long getFitnessCacheHits() {
+        return evaluator.getHits();
+    }
+
+    /**
+     * Getter.
+     * @return the number of individuals whose fitness has been computed.
+     */
+    public
+    long getFitnessCacheMisses() {
+        return evaluator.getMisses();
+    }
+
+    /**
+     * Island of the genetic algorithm, a sub-population evolving on its own between two migrations.
+     * In the panmictic mode the whole population is a single island.
+     */
+    private
+    class Island {
+
+        // The population and its offspring are swapped at each generation, the buffers are never reallocated.
+        Population<T> p;
+        Population<T> parents;
+        Population<T> offspring;
+        Population<T> emigrants;
+        final RandomSource random;
+
+        /**
+         * Construct an empty island.
+         * @param popSize the population's size.
+         * @param random the random number generator of the island.
+         */
+        Island(final int popSize, RandomSource random) {
+            this.p = new Population<>(popSize + 1);
+            this.parents = new Population<>(popSize + 1);
+            this.offspring = new Population<>(popSize + 1);
+            this.emigrants = new Population<>(0);
+            this.random = random;
+        }
+
+        /**
+         * Generate the initial population of the island.
+         * @param popSize the population's size.
+         */
+        void generate(final int popSize) {
+            current.set(random);
+            try {
+                int i = 0;
+                while (i < popSize) {
+                    p.add(generator.get(), 0);
+                    ++i;
+                }
+            } finally {
+                current.remove();
+            }
+            evaluator.score(p, 0);
+        }
+
+        /**
+         * Run some generations on the island.
+         * @param nbGen the number of generation to run.
+         * @param ps the population size.
+         * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+         * @param elitism true if the first selected individual must survive.
+         */
+        void evolve(final int nbGen, final int ps, final float ss, final boolean elitism) {
+            current.set(random);
+            try {
+                int i = 0;
+                while (i < nbGen) {
+                    parents.clear();
+                    selection.select(p, (int)(ps * ss), parents, random);
+                    offspring.clear();
+                    variation(ps, elitism);
+                    Population<T> tmp = p;
+                    p = offspring;
+                    offspring = tmp;
+                    ++i;
+                }
+            } finally {
+                current.remove();
+            }
+        }
+
+        /**
+         * Apply variations to the parents, only the new individuals are scored.
+         * @param popSize the number of new individuals.
+         * @param elitism true if the first parent must survive.
+         */
+        private
+        void variation(final int popSize, final boolean elitism) {
+            // Keep the fittest if elitism is required, it keeps its fitness.
+            if (elitism && parents.size != 0)
+                offspring.add(parents, 0);
+            final int first = offspring.size;
+            // Apply variation.
             int i = 0;
-            while (i < n) {
-                try {
-                    final int index = TowerSampling.rate(ArrayUtils.toPrimitive(rates.toArray(new Float[0])));
-                    np.add(rankedPop.get(index));
-                    rankedPop.remove(index);
-                    rates.remove(index);
-                } catch (NoSuchElementException e) {
-                    System.err.println(e.getMessage());
+            while (i < popSize) {
+                if (parents.size == 0 || (varOp1.size() == 0 && varOp2.size() == 0))
                     break;
+                T individual;
+                if (varOp1.size() == 0) {
+                    individual = randFrom(random, varOp2).apply(randParent(), randParent());
+                } else if (varOp2.size() == 0 || rand(random, 0, 1) == 0) {
+                    individual = randFrom(random, varOp1).apply(randParent());
+                } else {
+                    individual = randFrom(random, varOp2).apply(randParent(), randParent());
                 }
+                offspring.add(individual, 0);
                 ++i;
             }
-            return np;
-        };
+            evaluator.score(offspring, first);
+        }
+
+        /**
+         * Select randomly one of the parents.
+         * @return the selected parent.
+         */
+        private
+        T randParent() {
+            return parents.get(rand(random, 0, parents.size - 1));
+        }
+
+        /**
+         * Copy the fittest individuals of the island into its emigrants buffer.
+         * @param n the number of emigrants.
+         */
+        void emigrate(final int n) {
+            final int m = Math.min(n, p.size);
+            for (int i = 0; i < p.size; i++)
+                p.order[i] = i;
+            Population.selectTop(p.order, p.fitness, m, p.size);
+            emigrants.clear();
+            for (int i = 0; i < m; i++)
+                emigrants.add(p, p.order[i]);
+        }
+
+        /**
+         * Replace the least fit individuals of the island by the emigrants of another island.
+         * @param from the island sending its emigrants.
+         */
+        void immigrate(Island from) {
+            final int m = Math.min(from.emigrants.size, p.size);
+            for (int i = 0; i < p.size; i++) {
+                p.order[i] = i;
+                p.keys[i] = -p.fitness[i];
+            }
+            Population.selectTop(p.order, p.keys, m, p.size);
+            for (int i = 0; i < m; i++) {
+                p.individuals[p.order[i]] = from.emigrants.individuals[i];
+                p.fitness[p.order[i]] = from.emigrants.fitness[i];
+            }
+        }
     }
 
     /**
-     * Change the function in charge of the selection of a population part.
+     * Compute the statistics of the population of all islands.
+     * @param islands the islands.
+     * @param generation the number of generations run so far.
+     * @param start the beginning of the run (in nanoseconds).
+     * @param previous the previous statistics or null.
+     * @param evaluations the number of evaluations at the beginning of the run.
+     * @return the statistics.
      */
-    public
-    void setTournementSelection() {
-        // TODO
+    private
+    GenerationStatistics<T> statistics(List<Island> islands, final int generation, final long start, GenerationStatistics<T> previous, final long evaluations) {
+        final long now = System.nanoTime();
+        T best = null;
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        double sumSq = 0;
+        int size = 0;
+        Set<T> genotypes = new HashSet<>();
+        for (Island island : islands) {
+            final Population<T> p = island.p;
+            for (int i = 0; i < p.size; i++) {
+                if (best == null || p.fitness[i] > bestFitness) {
+                    best = p.get(i);
+                    bestFitness = p.fitness[i];
+                }
+                sum += p.fitness[i];
+                sumSq += p.fitness[i] * p.fitness[i];
+                genotypes.add(p.get(i));
+            }
+            size += p.size;
+        }
+        final double mean = (size == 0) ? 0 : sum / size;
+        final double std = (size == 0) ? 0 : Math.sqrt(Math.max(sumSq / size - mean * mean, 0));
+        final long nbEval = evaluator.getMisses() - evaluations;
+        final long elapsed = now - ((previous == null) ? start : start + previous.getWallTime());
+        final long newEval = nbEval - ((previous == null) ? 0 : previous.getEvaluations());
+        return new GenerationStatistics<>(
+                generation,
+                new ScoredIndividual<>(best, bestFitness),
+                mean,
+                std,
+                (size == 0) ? 0 : (double) genotypes.size() / size,
+                now - start,
+                nbEval,
+                (elapsed == 0) ? 0 : newEval * 1e9 / elapsed
+        );
     }
 
     /**
-     * Apply variations to the population.
-     * @param p the initial population.
-     * @param popSize the final population size.
-     * @return the new population.
+     * Exchange the fittest individuals of each island with respect to the topology.
+     * @param islands the islands.
      */
     private
-    List<T> variation(List<T> p, final int popSize, final boolean elitism) {
-        List<T> np = new LinkedList<>();
-
-        // Keep the fitness if elitism is required.
-        if (elitism)
-            np.add(p.get(0));
-        // Apply variation.
-        int i = 0;
-        while (i < popSize) {
-            if (p.size() == 0 || (varOp1.size() == 0 && varOp2.size() == 0))
-                break;
-            T individual;
-            if (varOp1.size() == 0) {
-                individual = randFrom(varOp2).apply(randFrom(p), randFrom(p));
-            } else if (varOp2.size() == 0 || rand(0, 1) == 0) {
-                individual = randFrom(varOp1).apply(randFrom(p));
-            } else {
-                individual = randFrom(varOp2).apply(randFrom(p), randFrom(p));
+    void migration(List<Island> islands) {
+        final int nb = islands.size();
+        // All the emigrants leave before any arrival, so that an individual moves only once per migration.
+        for (Island island : islands)
+            island.emigrate(migrants);
+        for (int i = 0; i < nb; i++) {
+            switch (topology) {
+                case RING:
+                    islands.get((i + 1) % nb).immigrate(islands.get(i));
+                    break;
+                case FULLY_CONNECTED:
+                    for (int j = 0; j < nb; j++) {
+                        if (j != i)
+                            islands.get(j).immigrate(islands.get(i));
+                    }
+                    break;
+                case RANDOM:
+                    final int j = (i + 1 + random.nextInt(nb - 1)) % nb;
+                    islands.get(j).immigrate(islands.get(i));
+                    break;
             }
-            np.add(individual);
-            ++i;
         }
-        return np;
+    }
+
+    /**
+     * Evolve all the islands in parallel.
+     * @param islands the islands.
+     * @param executor the executor running the islands.
+     * @param nbGen the number of generation to run.
+     * @param ps the population size.
+     * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+     * @param elitism true if the first selected individual must survive.
+     */
+    private
+    void evolve(List<Island> islands, ExecutorService executor, final int nbGen, final int ps, final float ss, final boolean elitism) {
+        List<Future<?>> tasks = new ArrayList<>();
+        for (Island island : islands)
+            tasks.add(executor.submit(() -> island.evolve(nbGen, ps, ss, elitism)));
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The evolution has been interrupted.", e);
+        } catch (ExecutionException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            throw new IllegalStateException("The evolution of an island failed.", e.getCause());
+        }
     }
 
     /**
@@ -239,16 +703,191 @@ public class GeneticAlgorithm<T> {
      */
     public
     List<T> run(final int maxI, final int ps, final int n, final float ss, final boolean elitism) {
+        List<ScoredIndividual<T>> s = runScored(maxI, ps, n, ss, elitism);
+        if (s == null)
+            return null;
+        List<T> r = new ArrayList<>(s.size());
+        for (ScoredIndividual<T> x : s)
+            r.add(x.getIndividual());
+        return r;
+    }
+
+    /**
+     * Run the Genetic Algorithm.
+     * @param maxI the number of generation to run.
+     * @param ps the population size (of each island).
+     * @param n the number of solutions to return (among all the islands).
+     * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+     * @return the best solutions found and their fitness.
+     */
+    public
+    List<ScoredIndividual<T>> runScored(final int maxI, final int ps, final int n, final float ss, final boolean elitism) {
         if (ss < 0 || ss > 1 || ps < 0) {
             return null;
         }
-        List<T> p = generation(ps);
-        int i = 0;
-        while (i < maxI) {
-            p = selection.apply(p, (int)(ps * ss));
-            p = variation(p, ps, elitism);
-            ++i;
+        // Each island has its own generator, seeded by the generator of the algorithm.
+        List<Island> islands = new ArrayList<>();
+        for (int j = 0; j < nbIslands; j++) {
+            Island island = new Island(ps, random.split());
+            island.generate(ps);
+            islands.add(island);
+        }
+        return evolve(islands, 0, maxI, ps, n, ss, elitism);
+    }
+
+    /**
+     * Resume a run of the Genetic Algorithm from a checkpoint, with the same configuration as the interrupted run.
+     * The resumed run gives the same result as the uninterrupted run. The state of the stopping criteria (e.g. the
+     * generations without improvement) is not saved, so a run with stopping criteria cannot be resumed.
+     * @param file the checkpoint file.
+     * @param serializer the serializer of the individuals.
+     * @param maxI the number of generation to run (including the generations run before the checkpoint).
+     * @param n the number of solutions to return.
+     * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+     * @return the best solutions found.
+     * @throws IOException if the checkpoint cannot be read.
+     */
+    public
+    List<T> resume(File file, Serializer<T> serializer, final int maxI, final int n, final float ss, final boolean elitism) throws IOException {
+        List<ScoredIndividual<T>> s = resumeScored(file, serializer, maxI, n, ss, elitism);
+        List<T> r = new ArrayList<>(s.size());
+        for (ScoredIndividual<T> x : s)
+            r.add(x.getIndividual());
+        return r;
+    }
+
+    /**
+     * Resume a run of the Genetic Algorithm from a checkpoint, with the same configuration as the interrupted run.
+     * The resumed run gives the same result as the uninterrupted run. The state of the stopping criteria (e.g. the
+     * generations without improvement) is not saved, so a run with stopping criteria cannot be resumed.
+     * @param file the checkpoint file.
+     * @param serializer the serializer of the individuals.
+     * @param maxI the number of generation to run (including the generations run before the checkpoint).
+     * @param n the number of solutions to return.
+     * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+     * @return the best solutions found and their fitness.
+     * @throws IOException if the checkpoint cannot be read.
+     */
+    public
+    List<ScoredIndividual<T>> resumeScored(File file, Serializer<T> serializer, final int maxI, final int n, final float ss, final boolean elitism) throws IOException {
+        if (!criteria.isEmpty())
+            throw new IllegalStateException("A run with stopping criteria cannot be resumed from a checkpoint.");
+        Checkpoint.Snapshot<T> snapshot = Checkpoint.load(file, serializer);
+        if (snapshot.individuals.size() != nbIslands)
+            throw new IllegalStateException("The checkpoint has " + snapshot.individuals.size() + " islands instead of " + nbIslands + ".");
+        random = new RandomSource(snapshot.random);
+        List<Island> islands = new ArrayList<>();
+        for (int j = 0; j < nbIslands; j++) {
+            Island island = new Island(snapshot.ps, new RandomSource(snapshot.randoms.get(j)));
+            Object[] individuals = snapshot.individuals.get(j);
+            double[] fitness = snapshot.fitness.get(j);
+            for (int k = 0; k < individuals.length; k++) {
+                @SuppressWarnings("unchecked")
+                T x = (T) individuals[k];
+                island.p.add(x, fitness[k]);
+            }
+            islands.add(island);
+        }
+        return evolve(islands, snapshot.generation, maxI, snapshot.ps, n, ss, elitism);
+    }
+
+    /**
+     * Evolve the islands and return the best solutions found.
+     * @param islands the islands.
+     * @param first the number of generations already run.
+     * @param maxI the number of generation to run.
+     * @param ps the population size (of each island).
+     * @param n the number of solutions to return (among all the islands).
+     * @param ss the strength of fittestSelection (zero => no death & 1 => no survivor).
+     * @return the best solutions found and their fitness.
+     */
+    private
+    List<ScoredIndividual<T>> evolve(List<Island> islands, final int first, final int maxI, final int ps, final int n, final float ss, final boolean elitism) {
+        ExecutorService executor = (nbIslands == 1) ? null : Executors.newFixedThreadPool(
+                Math.min(nbIslands, Runtime.getRuntime().availableProcessors()),
+                (Runnable task) -> {
+                    Thread t = new Thread(task, "island");
+                    t.setDaemon(true);
+                    return t;
+                }
+        );
+        final boolean observed = !listeners.isEmpty() || !criteria.isEmpty();
+        criteria.forEach(StoppingCriterion::reset);
+        final long start = System.nanoTime();
+        final long evaluations = evaluator.getMisses();
+        GenerationStatistics<T> stats = null;
+        try {
+            // The islands are only interrupted to migrate, to be saved or, in the panmictic mode, to be observed.
+            final int interval = (nbIslands != 1) ? migrationInterval :
+                    observed ? 1 :
+                    (checkpoint != null) ? checkpoint.getEvery() : Math.max(maxI, 1);
+            int i = first;
+            int saved = first;
+            while (i < maxI) {
+                final int nbGen = Math.min(interval, maxI - i);
+                if (executor == null)
+                    islands.get(0).evolve(nbGen, ps, ss, elitism);
+                else
+                    evolve(islands, executor, nbGen, ps, ss, elitism);
+                i += nbGen;
+                if (observed) {
+                    stats = statistics(islands, i, start, stats, evaluations);
+                    for (Consumer<GenerationStatistics<T>> listener : listeners)
+                        listener.accept(stats);
+                    boolean stop = false;
+                    for (StoppingCriterion<T> criterion : criteria)
+                        stop |= criterion.shouldStop(stats);
+                    if (stop)
+                        break;
+                }
+                if (i < maxI && executor != null)
+                    migration(islands);
+                if (i < maxI && checkpoint != null && i - saved >= checkpoint.getEvery()) {
+                    checkpoint.save(snapshot(islands, i, ps));
+                    saved = i;
+                }
+            }
+            generationCount = i;
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+            if (checkpoint != null)
+                checkpoint.close();
         }
-        return selection.apply(p, n);
+        // Merge the islands.
+        Population<T> p = islands.get(0).p;
+        int total = 0;
+        for (Island island : islands)
+            total += island.p.size;
+        p.ensureCapacity(total);
+        for (int j = 1; j < islands.size(); j++) {
+            Population<T> ip = islands.get(j).p;
+            for (int k = 0; k < ip.size; k++)
+                p.add(ip, k);
+        }
+        Population<T> np = new Population<>(Math.max(n, 0));
+        selection.select(p, n, np, random);
+        List<ScoredIndividual<T>> r = new ArrayList<>(np.size);
+        for (int j = 0; j < np.size; j++)
+            r.add(new ScoredIndividual<>(np.get(j), np.fitness[j]));
+        return r;
+    }
+
+    /**
+     * Capture the state of the run.
+     * @param islands the islands.
+     * @param generation the number of generations run so far.
+     * @param ps the population size (of each island).
+     * @return the snapshot.
+     */
+    private
+    Checkpoint.Snapshot<T> snapshot(List<Island> islands, final int generation, final int ps) {
+        Checkpoint.Snapshot<T> s = new Checkpoint.Snapshot<>();
+        s.generation = generation;
+        s.ps = ps;
+        s.random = random.getState();
+        for (Island island : islands)
+            s.add(island.p, island.random);
+        return s;
     }
 }
@@ -1,6 +1,7 @@
 package algorithms;
 
-import java.util.Random;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the Gillespie algorithm.
@@ -36,6 +37,104 @@ class Gillespie {
         float[] getReactionsPropencity();
     }
 
+    /**
+     * Abstract class representing a Gillespie System whose reactions can be inspected one by one.
+     * It allows the Next Reaction Method to recompute only the propensities affected by the fired reaction.
+     */
+    public static abstract
+    class ReactionNetwork extends GillespieSystem {
+
+        /**
+         * Return the number of reactions.
+         * @return the number of reactions.
+         */
+        public abstract
+        int getReactionCount();
+
+        /**
+         * Return the propensity of one reaction in the current state.
+         * @param reaction is the index of the reaction.
+         * @return the propensity.
+         */
+        public abstract
+        double getPropensity(int reaction);
+
+        /**
+         * Return the reactions whose propensity can change when a reaction fires (dependency graph).
+         * The fired reaction itself does not need to be included, its propensity is always recomputed.
+         * @param reaction is the index of the fired reaction.
+         * @return the indices of the dependent reactions.
+         */
+        public abstract
+        int[] getDependencies(int reaction);
+
+        /**
+         * Return the reactions' propencity.
+         * @return an array of propencities.
+         */
+        @Override
+        public
+        float[] getReactionsPropencity() {
+            float[] p = new float[getReactionCount()];
+            for (int i = 0; i < p.length; i++)
+                p[i] = (float) getPropensity(i);
+            return p;
+        }
+    }
+
+    /**
+     * Abstract class representing a reaction network whose state is a vector of species counts.
+     * The change of the species counts caused by each reaction allows to fire many reactions at once (tau-leaping).
+     */
+    public static abstract
+    class SpeciesNetwork extends ReactionNetwork {
+
+        /**
+         * Return the number of species.
+         * @return the number of species.
+         */
+        public abstract
+        int getSpeciesCount();
+
+        /**
+         * Return the count of one species in the current state.
+         * @param species is the index of the species.
+         * @return the count.
+         */
+        public abstract
+        long getSpecies(int species);
+
+        /**
+         * Return the change of each species count when a reaction fires (stoichiometry).
+         * @param reaction is the index of the reaction.
+         * @return an array with one change per species.
+         */
+        public abstract
+        int[] getChange(int reaction);
+
+        /**
+         * Return the highest order of the reactions consuming a species, it bounds the relative change of the
+         * propensities during a leap. The default value is suited to uni- and bi-molecular reactions.
+         * @param species is the index of the species.
+         * @return the highest order.
+         */
+        public
+        double getHighestOrder(int species) {
+            return 2;
+        }
+
+        /**
+         * Run an action several times in the system, override it to apply the change at once.
+         * @param action is the action to be executed.
+         * @param times is the number of executions.
+         */
+        public
+        void apply(int action, long times) {
+            for (long i = 0; i < times; i++)
+                apply(action);
+        }
+    }
+
     /**
      * Run the Gillespie Algorithm.
      * @param s the Gillespie System.
@@ -44,20 +143,220 @@ class Gillespie {
      */
     public static
     void run(GillespieSystem s, int nbIteration, int displayRate) {
-        float time = 0;
+        run(s, nbIteration, displayRate, RandomSource.create());
+    }
+
+    /**
+     * Run the Gillespie Algorithm.
+     * @param s the Gillespie System.
+     * @param nbIteration the number of iteration to run.
+     * @param displayRate the rate at which the system should be displayed.
+     * @param r the random number generator.
+     */
+    public static
+    void run(GillespieSystem s, int nbIteration, int displayRate, RandomSource r) {
+        direct(s, nbIteration, displayRate, r, (double t) -> s.print(String.valueOf(t)));
+    }
+
+    /**
+     * Run the Gillespie Algorithm, the states are recorded instead of being displayed.
+     * @param s the species network.
+     * @param nbIteration the number of iteration to run.
+     * @param recordRate the rate at which the system should be recorded.
+     * @param r the random number generator.
+     * @param recorder the recorder, it is not closed at the end of the run.
+     */
+    public static
+    void run(SpeciesNetwork s, int nbIteration, int recordRate, RandomSource r, TrajectoryRecorder recorder) {
+        direct(s, nbIteration, recordRate, r, (double t) -> recorder.record(t, s));
+    }
+
+    /**
+     * Run the Gillespie Algorithm (direct method).
+     * @param s the Gillespie System.
+     * @param nbIteration the number of iteration to run.
+     * @param observeRate the rate at which the system should be observed.
+     * @param r the random number generator.
+     * @param observer the observer receiving the time of the system.
+     */
+    private static
+    void direct(GillespieSystem s, int nbIteration, int observeRate, RandomSource r, DoubleConsumer observer) {
+        DirectMethod dm = new DirectMethod(s, r);
+        int i = 0;
+        while (i < nbIteration) {
+            if (observeRate != -1 && i % observeRate == 0)
+                observer.accept(dm.getTime());
+            if (!dm.step())
+                return;
+            i++;
+        }
+    }
+
+    /**
+     * Run the Gillespie Algorithm until a target time, the final state is always displayed.
+     * @param s the Gillespie System.
+     * @param tEnd the time at which the simulation stops.
+     * @param displayRate the rate at which the system should be displayed.
+     * @param r the random number generator.
+     */
+    public static
+    void runUntil(GillespieSystem s, double tEnd, int displayRate, RandomSource r) {
+        directUntil(s, tEnd, displayRate, r, (double t) -> s.print(String.valueOf(t)));
+    }
+
+    /**
+     * Run the Gillespie Algorithm until a target time, the states are recorded instead of being displayed.
+     * The final state is always recorded.
+     * @param s the species network.
+     * @param tEnd the time at which the simulation stops.
+     * @param recordRate the rate at which the system should be recorded.
+     * @param r the random number generator.
+     * @param recorder the recorder, it is not closed at the end of the run.
+     */
+    public static
+    void runUntil(SpeciesNetwork s, double tEnd, int recordRate, RandomSource r, TrajectoryRecorder recorder) {
+        directUntil(s, tEnd, recordRate, r, (double t) -> recorder.record(t, s));
+    }
+
+    /**
+     * Run the Gillespie Algorithm (direct method) until a target time.
+     * @param s the Gillespie System.
+     * @param tEnd the time at which the simulation stops.
+     * @param observeRate the rate at which the system should be observed.
+     * @param r the random number generator.
+     * @param observer the observer receiving the time of the system.
+     */
+    private static
+    void directUntil(GillespieSystem s, double tEnd, int observeRate, RandomSource r, DoubleConsumer observer) {
+        DirectMethod dm = new DirectMethod(s, r);
+        long i = 0;
+        while (true) {
+            if (observeRate != -1 && i % observeRate == 0)
+                observer.accept(dm.getTime());
+            if (!dm.step(tEnd))
+                break;
+            i++;
+        }
+        dm.advanceTo(tEnd);
+        observer.accept(dm.getTime());
+    }
+
+    /**
+     * Run the Gillespie Algorithm with the Next Reaction Method (Gibson & Bruck).
+     * @param s the reaction network.
+     * @param nbIteration the number of iteration to run.
+     * @param displayRate the rate at which the system should be displayed.
+     * @param r the random number generator.
+     */
+    public static
+    void runNextReaction(ReactionNetwork s, int nbIteration, int displayRate, RandomSource r) {
+        nextReaction(s, nbIteration, displayRate, r, (double t) -> s.print(String.valueOf(t)));
+    }
+
+    /**
+     * Run the Gillespie Algorithm with the Next Reaction Method, the states are recorded instead of being displayed.
+     * @param s the species network.
+     * @param nbIteration the number of iteration to run.
+     * @param recordRate the rate at which the system should be recorded.
+     * @param r the random number generator.
+     * @param recorder the recorder, it is not closed at the end of the run.
+     */
+    public static
+    void runNextReaction(
+        SpeciesNetwork s, int nbIteration, int recordRate, RandomSource r, TrajectoryRecorder recorder
+    ) {
+        nextReaction(s, nbIteration, recordRate, r, (double t) -> recorder.record(t, s));
+    }
+
+    /**
+     * Run the Gillespie Algorithm with the Next Reaction Method.
+     * @param s the reaction network.
+     * @param nbIteration the number of iteration to run.
+     * @param observeRate the rate at which the system should be observed.
+     * @param r the random number generator.
+     * @param observer the observer receiving the time of the system.
+     */
+    private static
+    void nextReaction(ReactionNetwork s, int nbIteration, int observeRate, RandomSource r, DoubleConsumer observer) {
+        NextReactionMethod nrm = new NextReactionMethod(s, r);
         int i = 0;
         while (i < nbIteration) {
-            if (displayRate != -1 && i % displayRate == 0)
-                s.print(String.valueOf(time));
-            float[] p = s.getReactionsPropencity();
-            if (p == null)
+            if (observeRate != -1 && i % observeRate == 0)
+                observer.accept(nrm.getTime());
+            if (!nrm.step())
+                return;
+            i++;
+        }
+    }
+
+    /**
+     * Run the approximate Gillespie Algorithm with tau-leaping, each leap fires many reactions at once.
+     * @param s the species network.
+     * @param nbLeaps the number of leaps to run (a fallback to the exact algorithm counts as one leap).
+     * @param displayRate the rate at which the system should be displayed.
+     * @param epsilon the error control parameter, the maximum relative change of the propensities during a leap.
+     * @param r the random number generator.
+     */
+    public static
+    void runTauLeaping(SpeciesNetwork s, int nbLeaps, int displayRate, double epsilon, RandomSource r) {
+        tauLeaping(s, nbLeaps, displayRate, epsilon, r, (double t) -> s.print(String.valueOf(t)));
+    }
+
+    /**
+     * Run the approximate Gillespie Algorithm with tau-leaping, the states are recorded instead of being displayed.
+     * @param s the species network.
+     * @param nbLeaps the number of leaps to run (a fallback to the exact algorithm counts as one leap).
+     * @param recordRate the rate at which the system should be recorded.
+     * @param epsilon the error control parameter, the maximum relative change of the propensities during a leap.
+     * @param r the random number generator.
+     * @param recorder the recorder, it is not closed at the end of the run.
+     */
+    public static
+    void runTauLeaping(
+        SpeciesNetwork s, int nbLeaps, int recordRate, double epsilon, RandomSource r, TrajectoryRecorder recorder
+    ) {
+        tauLeaping(s, nbLeaps, recordRate, epsilon, r, (double t) -> recorder.record(t, s));
+    }
+
+    /**
+     * Run the approximate Gillespie Algorithm with tau-leaping.
+     * @param s the species network.
+     * @param nbLeaps the number of leaps to run.
+     * @param observeRate the rate at which the system should be observed.
+     * @param epsilon the error control parameter.
+     * @param r the random number generator.
+     * @param observer the observer receiving the time of the system.
+     */
+    private static
+    void tauLeaping(
+        SpeciesNetwork s, int nbLeaps, int observeRate, double epsilon, RandomSource r, DoubleConsumer observer
+    ) {
+        TauLeaping tl = new TauLeaping(s, epsilon, r);
+        int i = 0;
+        while (i < nbLeaps) {
+            if (observeRate != -1 && i % observeRate == 0)
+                observer.accept(tl.getTime());
+            if (!tl.step(Double.POSITIVE_INFINITY))
                 return;
-            s.apply(TowerSampling.rate(p));
-            float sum = 0F;
-            for (float rate: p)
-                sum += rate;
-            time += 1F / sum + (float) Math.log10(new Random().nextDouble() + 1D);
             i++;
         }
     }
+
+    /**
+     * Run independent trajectories of a species network in parallel, and aggregate them on a uniform time grid.
+     * @param factory the supplier of the network in its initial state, called once per trajectory.
+     * @param nbTrajectories the number of trajectories.
+     * @param tEnd the time of the last point of the grid.
+     * @param nbPoints the number of points of the grid.
+     * @param r the random number generator.
+     * @return the statistics of the ensemble.
+     */
+    public static
+    EnsembleStatistics runEnsemble(
+        Supplier<? extends SpeciesNetwork> factory, int nbTrajectories, double tEnd, int nbPoints, RandomSource r
+    ) {
+        GillespieEnsemble ensemble = new GillespieEnsemble(factory, tEnd, nbPoints);
+        ensemble.setRandomSource(r);
+        return ensemble.run(nbTrajectories);
+    }
 }
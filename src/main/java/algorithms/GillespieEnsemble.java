@@ -0,0 +1,186 @@
+package algorithms;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Run many independent trajectories of the same species network in parallel and aggregate them on a time grid.
+ * Each trajectory draws from its own stream split from the ensemble's random number generator, and is only observed
+ * at the points of the grid, so the memory does not depend on the number of reactions fired.
+ */
+public
+class GillespieEnsemble {
+
+    private final Supplier<? extends Gillespie.SpeciesNetwork> factory;
+    private final double[] times;
+    private double[] probabilities = new double[]{0.05, 0.5, 0.95};
+    private double epsilon = 0;
+    private RandomSource random = RandomSource.create();
+    private ExecutorService executor = null;
+
+    /**
+     * Construct the ensemble with a uniform time grid.
+     * @param factory the supplier of the network in its initial state, called once per trajectory.
+     * @param tEnd the time of the last point.
+     * @param nbPoints the number of points, from zero to tEnd.
+     */
+    public
+    GillespieEnsemble(Supplier<? extends Gillespie.SpeciesNetwork> factory, final double tEnd, final int nbPoints) {
+        this(factory, uniform(tEnd, nbPoints));
+    }
+
+    /**
+     * Construct the ensemble.
+     * @param factory the supplier of the network in its initial state, called once per trajectory.
+     * @param times the time grid, in increasing order.
+     */
+    public
+    GillespieEnsemble(Supplier<? extends Gillespie.SpeciesNetwork> factory, final double[] times) {
+        for (int i = 0; i < times.length; i++) {
+            if (!(times[i] >= 0) || (i > 0 && times[i] <= times[i - 1]))
+                throw new IllegalArgumentException("The time grid must be non-negative and increasing.");
+        }
+        this.factory = factory;
+        this.times = times.clone();
+    }
+
+    /**
+     * Set the probabilities of the estimated quantiles (by default 0.05, 0.5 and 0.95).
+     * @param probabilities the probabilities, in [0; 1].
+     */
+    public
+    void setQuantiles(final double... probabilities) {
+        for (double p : probabilities) {
+            if (!(p >= 0 && p <= 1))
+                throw new IllegalArgumentException("The probability of a quantile must be in [0; 1].");
+        }
+        this.probabilities = probabilities.clone();
+    }
+
+    /**
+     * Simulate the trajectories with tau-leaping instead of the exact Next Reaction Method.
+     * @param epsilon the error control parameter of tau-leaping or zero to use the exact algorithm.
+     */
+    public
+    void setTauLeaping(final double epsilon) {
+        if (!(epsilon >= 0 && epsilon < 1))
+            throw new IllegalArgumentException("The error control parameter must be in [0; 1[.");
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Set the random number generator, each trajectory draws from a generator split from it.
+     * @param random the random number generator.
+     */
+    public
+    void setRandomSource(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Set the executor running the trajectories.
+     * @param executor the executor or null to use a pool of one thread per processor during each run.
+     */
+    public
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Run the trajectories.
+     * @param nbTrajectories the number of trajectories.
+     * @return the statistics of the ensemble (without species if there is no trajectory).
+     */
+    public
+    EnsembleStatistics run(final int nbTrajectories) {
+        EnsembleStatistics stats = null;
+        ExecutorService pool = executor;
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), (Runnable task) -> {
+                Thread t = new Thread(task, "gillespie-ensemble");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        // A bounded window of trajectories is in flight, so their results never fill the memory.
+        final int window = 4 * ((pool instanceof ForkJoinPool) ?
+                ((ForkJoinPool) pool).getParallelism() : Runtime.getRuntime().availableProcessors());
+        Deque<Future<long[]>> tasks = new ArrayDeque<>(window);
+        try {
+            int submitted = 0;
+            while (submitted < nbTrajectories || !tasks.isEmpty()) {
+                // The streams are split in order on the calling thread, so each trajectory is reproducible.
+                while (submitted < nbTrajectories && tasks.size() < window) {
+                    final RandomSource r = random.split();
+                    tasks.add(pool.submit(() -> trajectory(r)));
+                    ++submitted;
+                }
+                // The trajectories are aggregated in submission order, so the statistics are reproducible too.
+                final long[] state = tasks.poll().get();
+                if (stats == null) {
+                    final int nbSpecies = (times.length == 0) ? 0 : state.length / times.length;
+                    stats = new EnsembleStatistics(times, nbSpecies, probabilities);
+                }
+                stats.add(state);
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The ensemble has been interrupted.", e);
+        } catch (ExecutionException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("A trajectory has failed.", e.getCause());
+        } finally {
+            if (executor == null)
+                pool.shutdownNow();
+        }
+        return (stats == null) ? new EnsembleStatistics(times, 0, probabilities) : stats;
+    }
+
+    /**
+     * Simulate one trajectory and sample it on the time grid.
+     * @param r the random number generator of the trajectory.
+     * @return the species counts, point by point.
+     */
+    private
+    long[] trajectory(RandomSource r) {
+        final Gillespie.SpeciesNetwork s = factory.get();
+        final int nbSpecies = s.getSpeciesCount();
+        final long[] state = new long[times.length * nbSpecies];
+        final NextReactionMethod nrm = (epsilon == 0) ? new NextReactionMethod(s, r) : null;
+        final TauLeaping tl = (epsilon == 0) ? null : new TauLeaping(s, epsilon, r);
+        for (int t = 0; t < times.length; t++) {
+            if (nrm != null)
+                nrm.advanceTo(times[t]);
+            else
+                tl.advanceTo(times[t]);
+            for (int i = 0; i < nbSpecies; i++)
+                state[t * nbSpecies + i] = s.getSpecies(i);
+        }
+        return state;
+    }
+
+    /**
+     * Create a uniform time grid.
+     * @param tEnd the time of the last point.
+     * @param nbPoints the number of points, from zero to tEnd.
+     * @return the time grid.
+     */
+    private static
+    double[] uniform(final double tEnd, final int nbPoints) {
+        if (nbPoints < 1 || !(tEnd >= 0))
+            throw new IllegalArgumentException("The time grid must have at least one point and a non-negative end.");
+        double[] times = new double[nbPoints];
+        for (int i = 1; i < nbPoints; i++)
+            times[i] = tEnd * i / (nbPoints - 1);
+        return times;
+    }
+}
@@ -0,0 +1,445 @@
+package algorithms;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Two dimensional outer totalistic automaton on an unbounded plane, implemented with HashLife (Gosper).
+ * The plane is a quadtree whose identical nodes are shared, and the future of the centre of each node is memoised, so
+ * sparse, repetitive or periodic patterns can be advanced by a huge number of generations at once.
+ * The rules giving birth with zero neighbours (B0) are not supported since they would fill the infinite plane.
+ */
+public
+class HashLife implements Automaton {
+
+    /**
+     * Node of the quadtree, a square of 2^level cells. The nodes are canonical, two nodes with the same children are
+     * the same object.
+     */
+    private static final
+    class Node {
+        final int level;
+        final Node nw;
+        final Node ne;
+        final Node sw;
+        final Node se;
+        final long population;
+        final int hash;
+        // The centre of the node after 2^j generations, for each j in [0; level - 2].
+        Node[] next = null;
+
+        /**
+         * Construct a cell.
+         * @param alive the state of the cell.
+         */
+        Node(final boolean alive) {
+            this.level = 0;
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.population = alive ? 1 : 0;
+            this.hash = alive ? 1 : 0;
+        }
+
+        /**
+         * Construct a node from its quadrants.
+         * @param nw the north-west quadrant.
+         * @param ne the north-east quadrant.
+         * @param sw the south-west quadrant.
+         * @param se the south-east quadrant.
+         */
+        Node(Node nw, Node ne, Node sw, Node se) {
+            this.level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            int h = nw.hash;
+            h = 31 * h + ne.hash;
+            h = 31 * h + sw.hash;
+            h = 31 * h + se.hash;
+            this.hash = h ^ (h >>> 16) ^ level;
+        }
+
+        @Override
+        public
+        boolean equals(Object o) {
+            if (!(o instanceof Node))
+                return false;
+            Node n = (Node) o;
+            return level == n.level && nw == n.nw && ne == n.ne && sw == n.sw && se == n.se &&
+                    (level != 0 || population == n.population);
+        }
+
+        @Override
+        public
+        int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final Node DEAD = new Node(false);
+    private static final Node ALIVE = new Node(true);
+
+    private final LifeRule rule;
+    private Map<Node, Node> nodes = new HashMap<>();
+    private Node[] empty = new Node[]{DEAD};
+    private Node root;
+    private long generation = 0;
+    private int maxNodes = 1 << 22;
+
+    /**
+     * Construct an empty plane.
+     * @param rule the rule, it must not give birth with zero neighbours.
+     */
+    public
+    HashLife(LifeRule rule) {
+        if (rule.isBirth(0))
+            throw new IllegalArgumentException("The rules with B0 are not supported on an unbounded plane.");
+        this.rule = rule;
+        this.root = empty(3);
+    }
+
+    /**
+     * Set the number of nodes above which the nodes which are not part of the plane, and the memoised futures, are
+     * dropped (by default 2^22).
+     * @param maxNodes the number of nodes.
+     */
+    public
+    void setMaxNodes(final int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Getter.
+     * @return the number of canonical nodes in memory.
+     */
+    public
+    int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Getter.
+     * @return the rule.
+     */
+    public
+    LifeRule getRule() {
+        return rule;
+    }
+
+    @Override
+    public
+    long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public
+    long count() {
+        return root.population;
+    }
+
+    /**
+     * Getter.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @return the state of the cell.
+     */
+    public
+    boolean get(final long x, final long y) {
+        if (!contains(root, x, y))
+            return false;
+        Node n = root;
+        long cx = x;
+        long cy = y;
+        while (n.level > 0) {
+            if (n.population == 0)
+                return false;
+            final long half = 1L << (n.level - 2);
+            final boolean east = cx >= 0;
+            final boolean south = cy >= 0;
+            n = south ? (east ? n.se : n.sw) : (east ? n.ne : n.nw);
+            if (n.level == 0)
+                break;
+            cx += east ? -half : half;
+            cy += south ? -half : half;
+        }
+        return n == ALIVE;
+    }
+
+    /**
+     * Setter.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @param alive the new state of the cell.
+     */
+    public
+    void set(final long x, final long y, final boolean alive) {
+        while (!contains(root, x, y))
+            root = expand(root);
+        root = set(root, x, y, alive);
+    }
+
+    @Override
+    public
+    void step() {
+        step(1);
+    }
+
+    /**
+     * Compute several generations, by memoised jumps of a power of two generations.
+     * @param n the number of generations.
+     */
+    @Override
+    public
+    void step(final long n) {
+        if (n < 0)
+            throw new IllegalArgumentException("The number of generations must be non-negative.");
+        for (int j = 0; j < 63; j++) {
+            if (((n >>> j) & 1) == 0)
+                continue;
+            // The pattern must stay inside the centre of the root, which moves at most 2^j cells in 2^j generations.
+            while (root.level < j + 2 || !centred(root))
+                root = expand(root);
+            root = expand(root);
+            root = next(root, j);
+            generation += 1L << j;
+            if (nodes.size() > maxNodes)
+                collect();
+        }
+    }
+
+    /**
+     * Check if a cell is inside a node centred on the origin.
+     * @param n the node.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @return true if the cell is inside the node.
+     */
+    private static
+    boolean contains(Node n, final long x, final long y) {
+        final long half = 1L << (n.level - 1);
+        return x >= -half && x < half && y >= -half && y < half;
+    }
+
+    /**
+     * Set a cell of a node centred on the origin.
+     * @param n the node.
+     * @param x the column of the cell, relative to the centre of the node.
+     * @param y the row of the cell, relative to the centre of the node.
+     * @param alive the new state of the cell.
+     * @return the new node.
+     */
+    private
+    Node set(Node n, final long x, final long y, final boolean alive) {
+        if (n.level == 1) {
+            // The quadrants of a 2x2 node are the cells (-1, -1), (0, -1), (-1, 0) and (0, 0).
+            final Node c = alive ? ALIVE : DEAD;
+            return join(
+                (x < 0 && y < 0) ? c : n.nw,
+                (x >= 0 && y < 0) ? c : n.ne,
+                (x < 0 && y >= 0) ? c : n.sw,
+                (x >= 0 && y >= 0) ? c : n.se
+            );
+        }
+        final long q = 1L << (n.level - 2);
+        if (y < 0) {
+            if (x < 0)
+                return join(set(n.nw, x + q, y + q, alive), n.ne, n.sw, n.se);
+            return join(n.nw, set(n.ne, x - q, y + q, alive), n.sw, n.se);
+        }
+        if (x < 0)
+            return join(n.nw, n.ne, set(n.sw, x + q, y - q, alive), n.se);
+        return join(n.nw, n.ne, n.sw, set(n.se, x - q, y - q, alive));
+    }
+
+    /**
+     * Return the canonical node with the given quadrants.
+     * @param nw the north-west quadrant.
+     * @param ne the north-east quadrant.
+     * @param sw the south-west quadrant.
+     * @param se the south-east quadrant.
+     * @return the node.
+     */
+    private
+    Node join(Node nw, Node ne, Node sw, Node se) {
+        Node n = new Node(nw, ne, sw, se);
+        Node canonical = nodes.putIfAbsent(n, n);
+        return (canonical == null) ? n : canonical;
+    }
+
+    /**
+     * Return the empty node of a level.
+     * @param level the level.
+     * @return the node.
+     */
+    private
+    Node empty(final int level) {
+        if (level >= empty.length) {
+            Node[] e = new Node[level + 1];
+            System.arraycopy(empty, 0, e, 0, empty.length);
+            for (int l = empty.length; l <= level; l++)
+                e[l] = join(e[l - 1], e[l - 1], e[l - 1], e[l - 1]);
+            empty = e;
+        }
+        return empty[level];
+    }
+
+    /**
+     * Surround a node with empty cells, the result is twice as wide and centred on the same point.
+     * @param n the node.
+     * @return the new node.
+     */
+    private
+    Node expand(Node n) {
+        final Node e = empty(n.level - 1);
+        return join(
+            join(e, e, e, n.nw),
+            join(e, e, n.ne, e),
+            join(e, n.sw, e, e),
+            join(n.se, e, e, e)
+        );
+    }
+
+    /**
+     * Check if all the live cells of a node are in its centre (the inner half).
+     * @param n the node.
+     * @return true if the border is empty.
+     */
+    private static
+    boolean centred(Node n) {
+        return n.nw.population == n.nw.se.population && n.ne.population == n.ne.sw.population &&
+               n.sw.population == n.sw.ne.population && n.se.population == n.se.nw.population;
+    }
+
+    /**
+     * Return the centre of a node (the square of half its width around its centre).
+     * @param n the node.
+     * @return the centre.
+     */
+    private
+    Node centre(Node n) {
+        return join(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+    }
+
+    /**
+     * Compute the centre of a node after 2^j generations.
+     * @param n the node, of level at least 2.
+     * @param j the logarithm of the number of generations, at most n.level - 2.
+     * @return the centre after 2^j generations.
+     */
+    private
+    Node next(Node n, final int j) {
+        if (n.next != null && n.next[j] != null)
+            return n.next[j];
+        Node result;
+        if (n.population == 0) {
+            result = n.nw;
+        } else if (n.level == 2) {
+            result = base(n);
+        } else {
+            // The nine overlapping sub-squares of half the width.
+            final Node n00 = n.nw;
+            final Node n01 = join(n.nw.ne, n.ne.nw, n.nw.se, n.ne.sw);
+            final Node n02 = n.ne;
+            final Node n10 = join(n.nw.sw, n.nw.se, n.sw.nw, n.sw.ne);
+            final Node n11 = join(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+            final Node n12 = join(n.ne.sw, n.ne.se, n.se.nw, n.se.ne);
+            final Node n20 = n.sw;
+            final Node n21 = join(n.sw.ne, n.se.nw, n.sw.se, n.se.sw);
+            final Node n22 = n.se;
+            // A full jump takes two steps of 2^(level - 3) generations, a shorter one takes a single step.
+            final boolean full = j == n.level - 2;
+            final int k = full ? j - 1 : j;
+            final Node r00 = next(n00, k);
+            final Node r01 = next(n01, k);
+            final Node r02 = next(n02, k);
+            final Node r10 = next(n10, k);
+            final Node r11 = next(n11, k);
+            final Node r12 = next(n12, k);
+            final Node r20 = next(n20, k);
+            final Node r21 = next(n21, k);
+            final Node r22 = next(n22, k);
+            final Node a = join(r00, r01, r10, r11);
+            final Node b = join(r01, r02, r11, r12);
+            final Node c = join(r10, r11, r20, r21);
+            final Node d = join(r11, r12, r21, r22);
+            if (full)
+                result = join(next(a, k), next(b, k), next(c, k), next(d, k));
+            else
+                result = join(centre(a), centre(b), centre(c), centre(d));
+        }
+        if (n.next == null)
+            n.next = new Node[n.level - 1];
+        n.next[j] = result;
+        return result;
+    }
+
+    /**
+     * Compute the centre of a 4x4 node after one generation.
+     * @param n the node, of level 2.
+     * @return the 2x2 centre after one generation.
+     */
+    private
+    Node base(Node n) {
+        // Bit (4 * y + x) of the grid is the cell (x, y).
+        int grid = 0;
+        Node[] quadrants = new Node[]{n.nw, n.ne, n.sw, n.se};
+        for (int q = 0; q < 4; q++) {
+            final Node c = quadrants[q];
+            final int x = (q & 1) * 2;
+            final int y = (q >>> 1) * 2;
+            grid |= ((c.nw == ALIVE) ? 1 : 0) << (4 * y + x);
+            grid |= ((c.ne == ALIVE) ? 1 : 0) << (4 * y + x + 1);
+            grid |= ((c.sw == ALIVE) ? 1 : 0) << (4 * (y + 1) + x);
+            grid |= ((c.se == ALIVE) ? 1 : 0) << (4 * (y + 1) + x + 1);
+        }
+        Node[] cells = new Node[4];
+        for (int i = 0; i < 4; i++) {
+            final int x = 1 + (i & 1);
+            final int y = 1 + (i >>> 1);
+            int k = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx != 0 || dy != 0)
+                        k += (grid >>> (4 * (y + dy) + x + dx)) & 1;
+                }
+            }
+            final boolean alive = ((grid >>> (4 * y + x)) & 1) != 0;
+            cells[i] = rule.next(alive, k) ? ALIVE : DEAD;
+        }
+        return join(cells[0], cells[1], cells[2], cells[3]);
+    }
+
+    /**
+     * Drop the nodes which are not part of the plane anymore, and all the memoised futures.
+     */
+    private
+    void collect() {
+        nodes = new HashMap<>();
+        empty = new Node[]{DEAD};
+        root = copy(root, new IdentityHashMap<>());
+    }
+
+    /**
+     * Copy a node into the current table of nodes.
+     * @param n the node.
+     * @param copies the nodes already copied.
+     * @return the copy.
+     */
+    private
+    Node copy(Node n, Map<Node, Node> copies) {
+        if (n.level == 0)
+            return n;
+        Node c = copies.get(n);
+        if (c == null) {
+            c = join(copy(n.nw, copies), copy(n.ne, copies), copy(n.sw, copies), copy(n.se, copies));
+            copies.put(n, c);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,214 @@
+package algorithms;
+
+import java.util.List;
+
+/**
+ * KD-tree of real-valued vectors under the Euclidean distance.
+ * The tree is implicit: the points are stored in a flat array (point i, dimension k at index i * dim + k), the node
+ * of the range [lo, hi) being the point at its middle, split along the dimension of largest spread. A query visits
+ * the side of the split containing it first, and stops at the first point found in range.
+ */
+public final
+class KdTree implements MetricIndex<double[]> {
+
+    private final int size;
+    private final int dim;
+    private final double[] points;
+    private final int[] axis;
+
+    /**
+     * Build the tree in O(n log n) on average.
+     * @param points the points, they must have the same number of dimensions and are copied.
+     */
+    public
+    KdTree(List<double[]> points) {
+        this.size = points.size();
+        this.dim = (size == 0) ? 0 : points.get(0).length;
+        this.axis = new int[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (points.get(i).length != dim)
+                throw new IllegalArgumentException("The points must have the same number of dimensions.");
+            order[i] = i;
+        }
+        build(points, order);
+        // The points are copied in the order of the tree, so the nodes of a subtree are contiguous.
+        this.points = new double[size * dim];
+        for (int i = 0; i < size; i++)
+            System.arraycopy(points.get(order[i]), 0, this.points, i * dim, dim);
+    }
+
+    /**
+     * Arrange the points as an implicit tree, the median of each range along its axis being at its middle.
+     * @param points the points.
+     * @param order the indices of the points, reordered.
+     */
+    private
+    void build(List<double[]> points, int[] order) {
+        int[] stack = new int[128];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size;
+        while (top > 0) {
+            final int hi = stack[--top];
+            final int lo = stack[--top];
+            if (hi - lo < 2) {
+                if (hi > lo)
+                    axis[lo] = 0;
+                continue;
+            }
+            final int mid = (lo + hi) >>> 1;
+            final int a = widest(points, order, lo, hi);
+            select(points, order, lo, hi, mid, a);
+            axis[mid] = a;
+            stack[top++] = lo;
+            stack[top++] = mid;
+            stack[top++] = mid + 1;
+            stack[top++] = hi;
+        }
+    }
+
+    /**
+     * Find the dimension along which the points of a range are the most spread.
+     * @param points the points.
+     * @param order the indices of the points.
+     * @param lo the first point (inclusive).
+     * @param hi the last point (exclusive).
+     * @return the dimension.
+     */
+    private
+    int widest(List<double[]> points, int[] order, final int lo, final int hi) {
+        int best = 0;
+        double bestSpread = -1;
+        for (int k = 0; k < dim; k++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                final double x = points.get(order[i])[k];
+                min = Math.min(min, x);
+                max = Math.max(max, x);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Partially sort a range (quickselect), so the point at index m has the points lower than it on its left.
+     * @param points the points.
+     * @param order the indices of the points.
+     * @param lo the first point (inclusive).
+     * @param hi the last point (exclusive).
+     * @param m the index of the median.
+     * @param a the dimension compared.
+     */
+    private static
+    void select(List<double[]> points, int[] order, int lo, int hi, final int m, final int a) {
+        --hi;
+        while (hi > lo) {
+            final double pivot = points.get(order[(lo + hi) >>> 1])[a];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points.get(order[i])[a] < pivot)
+                    ++i;
+                while (points.get(order[j])[a] > pivot)
+                    --j;
+                if (i <= j) {
+                    final int t = order[i];
+                    order[i++] = order[j];
+                    order[j--] = t;
+                }
+            }
+            if (m <= j)
+                hi = j;
+            else if (m >= i)
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    @Override
+    public
+    boolean anyWithin(double[] query, double radius) {
+        return search(query, radius, false);
+    }
+
+    @Override
+    public
+    boolean anyCloserThan(double[] query, double radius) {
+        return search(query, radius, true);
+    }
+
+    @Override
+    public
+    int size() {
+        return size;
+    }
+
+    /**
+     * Getter.
+     * @return the number of dimensions of the points.
+     */
+    public
+    int getDimensions() {
+        return dim;
+    }
+
+    /**
+     * Look for a point in range.
+     * @param query the query.
+     * @param radius the distance.
+     * @param strict true if the distance must be strictly lower than the radius.
+     * @return true if a point is in range.
+     */
+    private
+    boolean search(double[] query, final double radius, final boolean strict) {
+        if (size == 0 || radius < 0 || (strict && radius == 0))
+            return false;
+        if (query.length != dim)
+            throw new IllegalArgumentException("The query must have " + dim + " dimensions.");
+        final double r2 = radius * radius;
+        // The depth of the tree is at most 32, and each node leaves at most one pending subtree per level.
+        int[] stack = new int[128];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size;
+        while (top > 0) {
+            final int hi = stack[--top];
+            final int lo = stack[--top];
+            if (lo >= hi)
+                continue;
+            final int mid = (lo + hi) >>> 1;
+            final int o = mid * dim;
+            double d2 = 0;
+            for (int k = 0; k < dim && d2 <= r2; k++)
+                d2 += (query[k] - points[o + k]) * (query[k] - points[o + k]);
+            if (strict ? d2 < r2 : d2 <= r2)
+                return true;
+            final double diff = query[axis[mid]] - points[o + axis[mid]];
+            // The points on the other side of the split are at least |diff| away from the query.
+            if (strict ? diff * diff < r2 : diff * diff <= r2) {
+                if (diff < 0) {
+                    stack[top++] = mid + 1;
+                    stack[top++] = hi;
+                } else {
+                    stack[top++] = lo;
+                    stack[top++] = mid;
+                }
+            }
+            if (diff < 0) {
+                stack[top++] = lo;
+                stack[top++] = mid;
+            } else {
+                stack[top++] = mid + 1;
+                stack[top++] = hi;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,378 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Two dimensional outer totalistic automaton (e.g. the Game of Life) on a bounded grid.
+ * Each row is packed 64 cells per long. The eight neighbours of 64 cells are summed at once by a bit-sliced adder, the
+ * four bits of the sums being held by four words, and the rule is applied with bitwise operations on these words.
+ * The rows can be split into bands computed in parallel on a fork-join pool.
+ */
+public
+class LifeAutomaton implements Automaton {
+
+    private final int width;
+    private final int height;
+    private final int words;
+    private final LifeRule rule;
+    private final long tail;
+    // For each number of neighbours: the masks selecting it from the sum, and whether it gives birth and/or survival.
+    private final long[][] sums;
+    private final long[] dead;
+    private final long[] alive;
+    // The rows 0 and height + 1 are ghost rows, filled before each generation according to the boundary.
+    private long[] cells;
+    private long[] next;
+    private long generation = 0;
+    private ElementaryAutomaton.Boundary boundary = ElementaryAutomaton.Boundary.FIXED_ZERO;
+    private ForkJoinPool pool = null;
+    private int bandRows = 64;
+
+    /**
+     * Construct an automaton whose cells are all zero.
+     * @param width the number of columns.
+     * @param height the number of rows.
+     * @param rule the rule.
+     */
+    public
+    LifeAutomaton(final int width, final int height, LifeRule rule) {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("The width and the height must be positive.");
+        this.width = width;
+        this.height = height;
+        this.words = (width + 63) >>> 6;
+        this.rule = rule;
+        this.tail = ((width & 63) == 0) ? -1L : (1L << (width & 63)) - 1;
+        this.cells = new long[(height + 2) * words];
+        this.next = new long[cells.length];
+        int n = 0;
+        long[][] s = new long[9][];
+        long[] d = new long[9];
+        long[] a = new long[9];
+        for (int k = 0; k <= 8; k++) {
+            if (!rule.isBirth(k) && !rule.isSurvival(k))
+                continue;
+            s[n] = new long[]{
+                ((k & 1) != 0) ? 0 : -1L,
+                ((k & 2) != 0) ? 0 : -1L,
+                ((k & 4) != 0) ? 0 : -1L,
+                ((k & 8) != 0) ? 0 : -1L
+            };
+            d[n] = rule.isBirth(k) ? -1L : 0;
+            a[n] = rule.isSurvival(k) ? -1L : 0;
+            ++n;
+        }
+        this.sums = Arrays.copyOf(s, n);
+        this.dead = Arrays.copyOf(d, n);
+        this.alive = Arrays.copyOf(a, n);
+    }
+
+    /**
+     * Getter.
+     * @return the number of columns.
+     */
+    public
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Getter.
+     * @return the number of rows.
+     */
+    public
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Getter.
+     * @return the rule.
+     */
+    public
+    LifeRule getRule() {
+        return rule;
+    }
+
+    @Override
+    public
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Set the value of the cells outside the grid (by default FIXED_ZERO), it applies to the rows and the columns.
+     * @param boundary the boundary condition.
+     */
+    public
+    void setBoundary(ElementaryAutomaton.Boundary boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * Compute the generations in parallel, with bands of 64 rows.
+     * @param pool the fork-join pool or null to compute the generations on the calling thread.
+     */
+    public
+    void setParallel(ForkJoinPool pool) {
+        setParallel(pool, 64);
+    }
+
+    /**
+     * Compute the generations in parallel.
+     * @param pool the fork-join pool or null to compute the generations on the calling thread.
+     * @param bandRows the number of rows of each band.
+     */
+    public
+    void setParallel(ForkJoinPool pool, final int bandRows) {
+        if (bandRows < 1)
+            throw new IllegalArgumentException("The bands must have at least one row.");
+        this.pool = pool;
+        this.bandRows = bandRows;
+    }
+
+    /**
+     * Getter.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @return the state of the cell.
+     */
+    public
+    boolean get(final int x, final int y) {
+        checkIndex(x, y);
+        return ((cells[(y + 1) * words + (x >>> 6)] >>> x) & 1L) != 0;
+    }
+
+    /**
+     * Setter.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     * @param alive the new state of the cell.
+     */
+    public
+    void set(final int x, final int y, final boolean alive) {
+        checkIndex(x, y);
+        final int w = (y + 1) * words + (x >>> 6);
+        if (alive)
+            cells[w] |= 1L << x;
+        else
+            cells[w] &= ~(1L << x);
+    }
+
+    /**
+     * Set each cell to one with probability one half, 64 cells per random number.
+     * @param r the random number generator.
+     */
+    public
+    void randomize(RandomSource r) {
+        for (int y = 1; y <= height; y++) {
+            for (int w = 0; w < words; w++)
+                cells[y * words + w] = r.nextLong();
+            cells[y * words + words - 1] &= tail;
+        }
+    }
+
+    @Override
+    public
+    long count() {
+        long n = 0;
+        for (int i = words; i < (height + 1) * words; i++)
+            n += Long.bitCount(cells[i]);
+        return n;
+    }
+
+    /**
+     * Copy the packed cells of a row.
+     * @param y the row.
+     * @param row the array receiving the words, cell x is the bit (x % 64) of the word (x / 64).
+     */
+    public
+    void getRow(final int y, final long[] row) {
+        checkIndex(0, y);
+        System.arraycopy(cells, (y + 1) * words, row, 0, words);
+    }
+
+    @Override
+    public
+    void step() {
+        // Fill the ghost rows.
+        switch (boundary) {
+            case PERIODIC:
+                System.arraycopy(cells, height * words, cells, 0, words);
+                System.arraycopy(cells, words, cells, (height + 1) * words, words);
+                break;
+            case REFLECTIVE:
+                System.arraycopy(cells, words, cells, 0, words);
+                System.arraycopy(cells, height * words, cells, (height + 1) * words, words);
+                break;
+            default:
+                Arrays.fill(cells, 0, words, 0);
+                Arrays.fill(cells, (height + 1) * words, (height + 2) * words, 0);
+        }
+        if (pool == null || height <= bandRows)
+            band(1, height + 1);
+        else
+            // The fork-join of all the bands is the barrier between two generations.
+            pool.invoke(new Bands(0, (height + bandRows - 1) / bandRows));
+        long[] tmp = cells;
+        cells = next;
+        next = tmp;
+        ++generation;
+    }
+
+    /**
+     * Compute the next generation of a range of rows.
+     * @param from the first row (ghost rows included).
+     * @param to the row after the last one.
+     */
+    private
+    void band(final int from, final int to) {
+        for (int y = from; y < to; y++) {
+            final int up = (y - 1) * words;
+            final int mid = y * words;
+            final int down = (y + 1) * words;
+            for (int w = 0; w < words; w++) {
+                final long c = cells[mid + w];
+                // Bit-sliced sum of the eight neighbours: two full adders and a half adder, then their carries.
+                final long n0 = west(up, w);
+                final long n1 = cells[up + w];
+                final long n2 = east(up, w);
+                final long n3 = west(mid, w);
+                final long n4 = east(mid, w);
+                final long n5 = west(down, w);
+                final long n6 = cells[down + w];
+                final long n7 = east(down, w);
+                final long sa = n0 ^ n1 ^ n2;
+                final long ca = (n0 & n1) | (n2 & (n0 ^ n1));
+                final long sb = n3 ^ n4 ^ n5;
+                final long cb = (n3 & n4) | (n5 & (n3 ^ n4));
+                final long sc = n6 ^ n7;
+                final long cc = n6 & n7;
+                final long s0 = sa ^ sb ^ sc;
+                final long cd = (sa & sb) | (sc & (sa ^ sb));
+                final long t = ca ^ cb ^ cc;
+                final long u = (ca & cb) | (cc & (ca ^ cb));
+                final long s1 = t ^ cd;
+                final long v = t & cd;
+                final long s2 = u ^ v;
+                final long s3 = u & v;
+                long out = 0;
+                for (int k = 0; k < sums.length; k++) {
+                    final long[] m = sums[k];
+                    final long eq = (s0 ^ m[0]) & (s1 ^ m[1]) & (s2 ^ m[2]) & (s3 ^ m[3]);
+                    out |= eq & ((~c & dead[k]) | (c & alive[k]));
+                }
+                next[mid + w] = out;
+            }
+            next[mid + words - 1] &= tail;
+        }
+    }
+
+    /**
+     * Return the west neighbours of the cells of a word.
+     * @param row the index of the first word of the row.
+     * @param w the word.
+     * @return the word whose bit j is the west neighbour of cell j.
+     */
+    private
+    long west(final int row, final int w) {
+        final long prev = (w > 0) ? cells[row + w - 1] >>> 63 : ghost(row, true);
+        return (cells[row + w] << 1) | prev;
+    }
+
+    /**
+     * Return the east neighbours of the cells of a word.
+     * @param row the index of the first word of the row.
+     * @param w the word.
+     * @return the word whose bit j is the east neighbour of cell j.
+     */
+    private
+    long east(final int row, final int w) {
+        final long e = cells[row + w] >>> 1;
+        return (w < words - 1) ? e | (cells[row + w + 1] << 63) : e | (ghost(row, false) << (width - 1));
+    }
+
+    /**
+     * Return the cell outside a row.
+     * @param row the index of the first word of the row.
+     * @param west true for the cell before the first column, false for the cell after the last column.
+     * @return the cell (0 or 1).
+     */
+    private
+    long ghost(final int row, final boolean west) {
+        final long first = cells[row] & 1L;
+        final long last = (cells[row + ((width - 1) >>> 6)] >>> (width - 1)) & 1L;
+        switch (boundary) {
+            case PERIODIC:
+                return west ? last : first;
+            case REFLECTIVE:
+                return west ? first : last;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Range of bands, split in halves until a single band is left.
+     */
+    private
+    class Bands extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        /**
+         * Construct the range.
+         * @param from the first band.
+         * @param to the band after the last one.
+         */
+        Bands(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected
+        void compute() {
+            if (to - from == 1) {
+                band(1 + from * bandRows, 1 + Math.min(to * bandRows, height));
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new Bands(from, mid), new Bands(mid, to));
+        }
+    }
+
+    /**
+     * Check the coordinates of a cell.
+     * @param x the column of the cell.
+     * @param y the row of the cell.
+     */
+    private
+    void checkIndex(final int x, final int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IndexOutOfBoundsException("The cell (" + x + ", " + y + ") is not in the grid.");
+    }
+
+    /**
+     * Return the grid, one line of 0 and 1 per row.
+     * @return the grid.
+     */
+    @Override
+    public
+    String toString() {
+        StringBuilder sb = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            if (y > 0)
+                sb.append(System.lineSeparator());
+            final int row = (y + 1) * words;
+            for (int x = 0; x < width; x++)
+                sb.append((((cells[row + (x >>> 6)] >>> x) & 1L) != 0) ? '1' : '0');
+        }
+        return sb.toString();
+    }
+}
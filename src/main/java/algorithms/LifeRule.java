@@ -0,0 +1,147 @@
+package algorithms;
+
+/**
+ * Outer totalistic rule of a two dimensional automaton (Moore neighbourhood), e.g. B3/S23 for the Game of Life.
+ * A dead cell is born if its number of live neighbours is in B, a live cell survives if it is in S.
+ */
+public final
+class LifeRule {
+
+    /**
+     * The rule of the Game of Life.
+     */
+    public static final LifeRule CONWAY = parse("B3/S23");
+
+    private final int birth;
+    private final int survival;
+
+    /**
+     * Construct the rule.
+     * @param birth the mask of the numbers of neighbours giving birth, bit k for k neighbours.
+     * @param survival the mask of the numbers of neighbours allowing survival, bit k for k neighbours.
+     */
+    private
+    LifeRule(final int birth, final int survival) {
+        this.birth = birth;
+        this.survival = survival;
+    }
+
+    /**
+     * Parse a rule written "B3/S23" (the case and the separator do not matter) or "23/3" (survival/birth).
+     * @param rule the rule string.
+     * @return the rule.
+     */
+    public static
+    LifeRule parse(String rule) {
+        final String s = rule.trim().toUpperCase();
+        int birth = 0;
+        int survival = 0;
+        if (s.startsWith("B") || s.startsWith("S")) {
+            int mask = 0;
+            char section = 0;
+            for (int i = 0; i < s.length(); i++) {
+                final char c = s.charAt(i);
+                if (c == 'B' || c == 'S') {
+                    if (section == 'B')
+                        birth = mask;
+                    else if (section == 'S')
+                        survival = mask;
+                    section = c;
+                    mask = 0;
+                } else if (c >= '0' && c <= '8') {
+                    mask |= 1 << (c - '0');
+                } else if (c != '/' && c != ' ') {
+                    throw new IllegalArgumentException("The rule \"" + rule + "\" is not valid.");
+                }
+            }
+            if (section == 'B')
+                birth = mask;
+            else
+                survival = mask;
+        } else {
+            final String[] parts = s.split("/", -1);
+            if (parts.length != 2)
+                throw new IllegalArgumentException("The rule \"" + rule + "\" is not valid.");
+            survival = digits(parts[0], rule);
+            birth = digits(parts[1], rule);
+        }
+        return new LifeRule(birth, survival);
+    }
+
+    /**
+     * Getter.
+     * @param k the number of live neighbours.
+     * @return true if a dead cell with k live neighbours is born.
+     */
+    public
+    boolean isBirth(final int k) {
+        return ((birth >>> k) & 1) != 0;
+    }
+
+    /**
+     * Getter.
+     * @param k the number of live neighbours.
+     * @return true if a live cell with k live neighbours survives.
+     */
+    public
+    boolean isSurvival(final int k) {
+        return ((survival >>> k) & 1) != 0;
+    }
+
+    /**
+     * Compute the next state of a cell.
+     * @param alive the state of the cell.
+     * @param k the number of live neighbours.
+     * @return the next state of the cell.
+     */
+    public
+    boolean next(final boolean alive, final int k) {
+        return alive ? isSurvival(k) : isBirth(k);
+    }
+
+    /**
+     * Parse a list of numbers of neighbours.
+     * @param digits the digits.
+     * @param rule the rule string, for the error message.
+     * @return the mask of the numbers of neighbours.
+     */
+    private static
+    int digits(final String digits, final String rule) {
+        int mask = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            final char c = digits.charAt(i);
+            if (c < '0' || c > '8')
+                throw new IllegalArgumentException("The rule \"" + rule + "\" is not valid.");
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    @Override
+    public
+    boolean equals(Object o) {
+        return (o instanceof LifeRule) && ((LifeRule) o).birth == birth && ((LifeRule) o).survival == survival;
+    }
+
+    @Override
+    public
+    int hashCode() {
+        return (birth << 9) | survival;
+    }
+
+    @Override
+    public
+    String toString() {
+        StringBuilder sb = new StringBuilder("B");
+        for (int k = 0; k <= 8; k++) {
+            if (isBirth(k))
+                sb.append(k);
+        }
+        sb.append("/S");
+        for (int k = 0; k <= 8; k++) {
+            if (isSurvival(k))
+                sb.append(k);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Index of points answering range queries, used by the selection algorithms instead of comparing a candidate to
+ * every pattern (see KdTree and BkTree). The implementations are immutable and thread-safe once built.
+ * @param <T> The points' type.
+ */
+public
+interface MetricIndex<T> {
+
+    /**
+     * Check if a point of the index is within a distance of the query.
+     * @param query the query.
+     * @param radius the distance.
+     * @return true if a point is at a distance lower than or equal to the radius.
+     */
+    boolean anyWithin(T query, double radius);
+
+    /**
+     * Check if a point of the index is strictly closer to the query than a distance.
+     * @param query the query.
+     * @param radius the distance.
+     * @return true if a point is at a distance strictly lower than the radius.
+     */
+    boolean anyCloserThan(T query, double radius);
+
+    /**
+     * Getter.
+     * @return the number of points in the index.
+     */
+    int size();
+
+    /**
+     * Create an index comparing the query to every point, for the distances no tree supports.
+     * @param points the points, they are copied.
+     * @param distance the distance function.
+     * @param <T> The points' type.
+     * @return the index.
+     */
+    static <T>
+    MetricIndex<T> scan(List<? extends T> points, ToDoubleBiFunction<? super T, ? super T> distance) {
+        final List<T> copy = new ArrayList<>(points);
+        return new MetricIndex<T>() {
+
+            @Override
+            public
+            boolean anyWithin(T query, double radius) {
+                for (T x : copy) {
+                    if (distance.applyAsDouble(x, query) <= radius)
+                        return true;
+                }
+                return false;
+            }
+
+            @Override
+            public
+            boolean anyCloserThan(T query, double radius) {
+                for (T x : copy) {
+                    if (distance.applyAsDouble(x, query) < radius)
+                        return true;
+                }
+                return false;
+            }
+
+            @Override
+            public
+            int size() {
+                return copy.size();
+            }
+        };
+    }
+}
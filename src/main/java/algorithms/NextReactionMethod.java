@@ -0,0 +1,234 @@
+package algorithms;
+
+/**
+ * Implementation of the Next Reaction Method (Gibson & Bruck), an exact stochastic simulation algorithm.
+ * The putative firing time of each reaction is stored in an indexed priority queue and, after each reaction, only the
+ * propensities of the reactions depending on it are recomputed. A step costs O(d log n) instead of O(n).
+ */
+public
+class NextReactionMethod {
+
+    private final Gillespie.ReactionNetwork s;
+    private final RandomSource r;
+    private final double[] propensities;
+    private final IndexedPriorityQueue queue;
+    private double time = 0;
+    private long steps = 0;
+
+    /**
+     * Construct the engine, the reactions' firing times are drawn from the current state of the network.
+     * @param s the reaction network.
+     * @param r the random number generator.
+     */
+    public
+    NextReactionMethod(Gillespie.ReactionNetwork s, RandomSource r) {
+        this.s = s;
+        this.r = r;
+        final int n = s.getReactionCount();
+        this.propensities = new double[n];
+        this.queue = new IndexedPriorityQueue(n);
+        for (int i = 0; i < n; i++) {
+            propensities[i] = s.getPropensity(i);
+            queue.set(i, firingTime(propensities[i]));
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the current time of the system.
+     */
+    public
+    double getTime() {
+        return time;
+    }
+
+    /**
+     * Getter.
+     * @return the number of reactions fired so far.
+     */
+    public
+    long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Getter.
+     * @return the time at which the next reaction fires (infinity if no reaction can fire).
+     */
+    public
+    double getNextTime() {
+        return queue.minKey();
+    }
+
+    /**
+     * Fire the next reaction.
+     * @return false if no reaction can fire anymore.
+     */
+    public
+    boolean step() {
+        final int mu = queue.min();
+        final double t = queue.minKey();
+        if (mu == -1 || t == Double.POSITIVE_INFINITY)
+            return false;
+        time = t;
+        s.apply(mu);
+        ++steps;
+        // The fired reaction draws a new firing time.
+        propensities[mu] = s.getPropensity(mu);
+        queue.set(mu, firingTime(propensities[mu]));
+        // The dependent reactions rescale their remaining time to their new propensity.
+        for (int alpha : s.getDependencies(mu)) {
+            if (alpha == mu)
+                continue;
+            final double old = propensities[alpha];
+            final double a = s.getPropensity(alpha);
+            propensities[alpha] = a;
+            if (a == old)
+                continue;
+            if (a <= 0)
+                queue.set(alpha, Double.POSITIVE_INFINITY);
+            else if (old > 0)
+                queue.set(alpha, time + (old / a) * (queue.key(alpha) - time));
+            else
+                queue.set(alpha, firingTime(a));
+        }
+        return true;
+    }
+
+    /**
+     * Fire all the reactions happening before a time, and move the system's clock to this time.
+     * @param t the time.
+     */
+    public
+    void advanceTo(final double t) {
+        while (queue.minKey() <= t) {
+            if (!step())
+                break;
+        }
+        time = Math.max(time, t);
+    }
+
+    /**
+     * Draw the firing time of a reaction.
+     * @param a the reaction's propensity.
+     * @return the firing time (infinity if the propensity is zero).
+     */
+    private
+    double firingTime(final double a) {
+        return (a > 0) ? time + r.nextExponential() / a : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Binary min-heap of the reactions, indexed by reaction so that any key can be changed in O(log n).
+     */
+    private static
+    class IndexedPriorityQueue {
+
+        private final int[] heap;
+        private final int[] pos;
+        private final double[] keys;
+
+        /**
+         * Construct the queue, all the keys are infinite.
+         * @param n the number of reactions.
+         */
+        IndexedPriorityQueue(final int n) {
+            heap = new int[n];
+            pos = new int[n];
+            keys = new double[n];
+            for (int i = 0; i < n; i++) {
+                heap[i] = i;
+                pos[i] = i;
+                keys[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        /**
+         * Getter.
+         * @return the reaction with the smallest key or -1 if the queue is empty.
+         */
+        int min() {
+            return (heap.length == 0) ? -1 : heap[0];
+        }
+
+        /**
+         * Getter.
+         * @return the smallest key (infinity if the queue is empty).
+         */
+        double minKey() {
+            return (heap.length == 0) ? Double.POSITIVE_INFINITY : keys[heap[0]];
+        }
+
+        /**
+         * Getter.
+         * @param i the reaction.
+         * @return the key of the reaction.
+         */
+        double key(final int i) {
+            return keys[i];
+        }
+
+        /**
+         * Change the key of a reaction.
+         * @param i the reaction.
+         * @param k the new key.
+         */
+        void set(final int i, final double k) {
+            final double old = keys[i];
+            keys[i] = k;
+            if (k < old)
+                up(pos[i]);
+            else if (k > old)
+                down(pos[i]);
+        }
+
+        /**
+         * Move an element toward the root.
+         * @param j the position of the element.
+         */
+        private
+        void up(int j) {
+            final int x = heap[j];
+            while (j > 0) {
+                final int parent = (j - 1) >>> 1;
+                if (keys[heap[parent]] <= keys[x])
+                    break;
+                place(heap[parent], j);
+                j = parent;
+            }
+            place(x, j);
+        }
+
+        /**
+         * Move an element toward the leaves.
+         * @param j the position of the element.
+         */
+        private
+        void down(int j) {
+            final int x = heap[j];
+            while (true) {
+                int child = 2 * j + 1;
+                if (child >= heap.length)
+                    break;
+                if (child + 1 < heap.length && keys[heap[child + 1]] < keys[heap[child]])
+                    ++child;
+                if (keys[heap[child]] >= keys[x])
+                    break;
+                place(heap[child], j);
+                j = child;
+            }
+            place(x, j);
+        }
+
+        /**
+         * Put a reaction at a position of the heap.
+         * @param i the reaction.
+         * @param j the position.
+         */
+        private
+        void place(final int i, final int j) {
+            heap[j] = i;
+            pos[i] = j;
+        }
+    }
+}
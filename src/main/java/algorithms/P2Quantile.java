@@ -0,0 +1,129 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimation of a quantile with the P-square algorithm (Jain & Chlamtac).
+ * Five markers are moved along the observations, the memory is constant whatever the number of observations.
+ */
+final
+class P2Quantile {
+
+    private final double p;
+    private final double[] q = new double[5];
+    private final int[] n = new int[5];
+    private final double[] np = new double[5];
+    private final double[] dn = new double[5];
+    private long count = 0;
+
+    /**
+     * Construct the estimator.
+     * @param p the probability of the quantile, in [0; 1].
+     */
+    P2Quantile(final double p) {
+        if (!(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("The probability of a quantile must be in [0; 1].");
+        this.p = p;
+        for (int i = 0; i < 5; i++)
+            n[i] = i;
+        np[0] = 0;
+        np[1] = 2 * p;
+        np[2] = 4 * p;
+        np[3] = 2 + 2 * p;
+        np[4] = 4;
+        dn[0] = 0;
+        dn[1] = p / 2;
+        dn[2] = p;
+        dn[3] = (1 + p) / 2;
+        dn[4] = 1;
+    }
+
+    /**
+     * Getter.
+     * @return the probability of the quantile.
+     */
+    double getProbability() {
+        return p;
+    }
+
+    /**
+     * Add an observation.
+     * @param x the observation.
+     */
+    void add(final double x) {
+        if (count < 5) {
+            q[(int) count++] = x;
+            if (count == 5)
+                Arrays.sort(q);
+            return;
+        }
+        ++count;
+        // Find the cell of the observation, the extreme markers follow the minimum and the maximum.
+        int k;
+        if (x < q[0]) {
+            q[0] = x;
+            k = 0;
+        } else if (x >= q[4]) {
+            q[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= q[k + 1])
+                ++k;
+        }
+        for (int i = k + 1; i < 5; i++)
+            ++n[i];
+        for (int i = 0; i < 5; i++)
+            np[i] += dn[i];
+        // Move the middle markers toward their desired position.
+        for (int i = 1; i < 4; i++) {
+            final double d = np[i] - n[i];
+            if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+                final int s = (d > 0) ? 1 : -1;
+                final double qp = parabolic(i, s);
+                q[i] = (q[i - 1] < qp && qp < q[i + 1]) ? qp : linear(i, s);
+                n[i] += s;
+            }
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the estimated quantile or NaN if there is no observation.
+     */
+    double get() {
+        if (count == 0)
+            return Double.NaN;
+        if (count < 5) {
+            final double[] sorted = Arrays.copyOf(q, (int) count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.round(p * (count - 1))];
+        }
+        return q[2];
+    }
+
+    /**
+     * Piecewise-parabolic prediction of the height of a marker moved by one position.
+     * @param i the marker.
+     * @param s the direction of the move.
+     * @return the predicted height.
+     */
+    private
+    double parabolic(final int i, final int s) {
+        return q[i] + (double) s / (n[i + 1] - n[i - 1]) * (
+            (n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i]) +
+            (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1])
+        );
+    }
+
+    /**
+     * Linear prediction of the height of a marker moved by one position.
+     * @param i the marker.
+     * @param s the direction of the move.
+     * @return the predicted height.
+     */
+    private
+    double linear(final int i, final int s) {
+        return q[i] + s * (q[i + s] - q[i]) / (n[i + s] - n[i]);
+    }
+}
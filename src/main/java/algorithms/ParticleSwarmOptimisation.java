@@ -1,42 +1,339 @@
 package algorithms;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
 
 /**
- * Implementation of the PSO algorithm.
+ * Implementation of the PSO algorithm, maximising a fitness function.
+ * The swarm is stored as a structure of arrays: the positions, the velocities and the personal bests of all the
+ * particles are flat arrays of doubles (particle i, dimension k at index i * nbDim + k), and the fitness of the
+ * positions and of the personal bests are cached. An iteration costs O(popSize * nbDim) plus the evaluations.
+ * Each particle follows the best personal best of its neighbourhood (see Topology), kept up to date incrementally:
+ * when a personal best improves, only the particles informed by it are checked.
  */
 public class ParticleSwarmOptimisation {
 
-    private int NB_DIM = 2;
-    private double W = 0.7;
-    private double MAX_SPEED = 10;
-
     /**
-     * Individual of the PSO.
+     * Fitness of many particles at once, e.g. to evaluate them on a GPU or with vectorised code.
      */
-    private
-    class Individual {
-
-        Double[] best;
-        Double[] pos;
-        Double[] speed;
+    @FunctionalInterface
+    public
+    interface BatchFitness {
 
         /**
-         * Individual Constructor.
+         * Compute the fitness of the particles between two indices.
+         * @param positions the positions of the swarm, particle i, dimension k at index i * nbDim + k.
+         * @param from the first particle (inclusive).
+         * @param to the last particle (exclusive).
+         * @param nbDim the number of dimensions.
+         * @param fitness the array where the fitness of particle i is stored at index i.
          */
-        public
-        Individual(final int k) {
-            best = new Double[NB_DIM];
-            pos = new Double[NB_DIM];
-            speed = new Double[NB_DIM];
-            Random r = new Random();
-            for (int i = 0; i < NB_DIM; i++) {
-                pos[i] = 2 * k * (r.nextDouble() - 0.5);
-                best[i] = pos[i];
-                speed[i] = 2 * k * (r.nextDouble() - 0.5);
-            }
+        void apply(double[] positions, int from, int to, int nbDim, double[] fitness);
+    }
+
+    /**
+     * Moment at which the best position of the swarm is updated.
+     */
+    public enum Mode {
+        /** After each iteration, in particle order: the run only depends on the seed. */
+        SYNCHRONOUS,
+        /** As soon as a particle is evaluated, the next particles follow it during the same iteration. */
+        ASYNCHRONOUS
+    }
+
+    /**
+     * Neighbourhood followed by each particle.
+     */
+    public enum Topology {
+        /** The whole swarm, i.e. every particle follows the best position found so far. */
+        GLOBAL,
+        /** The particle and its two neighbours by index, on a ring. */
+        RING,
+        /** The particle and its four neighbours on a wrapped grid of about sqrt(popSize) columns. */
+        VON_NEUMANN,
+        /** Each particle informs itself and k particles drawn at random, drawn again after iterations without progress. */
+        RANDOM
+    }
+
+    /**
+     * Reason why the last run stopped.
+     */
+    public enum StopReason {
+        /** The maximum number of iterations has been run. */
+        ITERATIONS,
+        /** The best fitness reached the target, within the tolerance. */
+        FITNESS,
+        /** All the particles are close to the best position. */
+        RADIUS,
+        /** The best fitness did not improve enough for too many iterations. */
+        STALL,
+        /** The time budget is spent. */
+        TIME
+    }
+
+    private int nbDim = 2;
+    private double w = 0.7;
+    private double c1 = 1;
+    private double c2 = 1;
+    private double maxSpeed = 10;
+    private double[] lower = null;
+    private double[] upper = null;
+    private ToDoubleFunction<double[]> objective = null;
+    private BatchFitness batchFitness = null;
+    private Mode mode = Mode.SYNCHRONOUS;
+    private Topology topology = Topology.GLOBAL;
+    private int nbInformed = 3;
+    private double targetFitness = Double.POSITIVE_INFINITY;
+    private double tolerance = 0;
+    private double minRadius = 0;
+    private int stallIterations = 0;
+    private double minImprovement = 0;
+    private long timeBudget = 0;
+    private ExecutorService executor = null;
+    private int chunkSize = 16;
+    private RandomSource r;
+
+    private int n = 0;
+    private double[] pos = new double[0];
+    private double[] speed = new double[0];
+    private double[] best = new double[0];
+    private double[] fit = new double[0];
+    private double[] bestFit = new double[0];
+    private volatile double[] global = new double[0];
+    private double globalFit = Double.NEGATIVE_INFINITY;
+    private final Object lock = new Object();
+    // Particles informed by particle j (including j), and index of the best personal best seen by particle i.
+    private int[][] informed = new int[0][];
+    private int[] lbest = new int[0];
+    private int iterations = 0;
+    private StopReason stopReason = null;
+    // One random number generator and one scratch position per chunk of particles.
+    private RandomSource[] randoms = new RandomSource[0];
+    private double[][] scratch = new double[0][];
+
+    /**
+     * Construct the PSO with a random seed.
+     */
+    public
+    ParticleSwarmOptimisation() {
+        this(RandomSource.create());
+    }
+
+    /**
+     * Construct the PSO.
+     * @param r the random number generator.
+     */
+    public
+    ParticleSwarmOptimisation(RandomSource r) {
+        this.r = r;
+    }
+
+    /**
+     * Set the fitness function, maximised by the swarm (by default the fitness method).
+     * It must be thread-safe if the swarm is evaluated in parallel, and it must not keep the array it receives.
+     * @param objective the fitness function.
+     */
+    public
+    void setObjective(ToDoubleFunction<double[]> objective) {
+        this.objective = objective;
+        this.batchFitness = null;
+    }
+
+    /**
+     * Set a fitness function evaluating many particles at once, it replaces the objective.
+     * @param batchFitness the batch fitness function.
+     */
+    public
+    void setBatchFitness(BatchFitness batchFitness) {
+        this.batchFitness = batchFitness;
+        this.objective = null;
+    }
+
+    /**
+     * Set the number of dimensions of the search space (by default 2).
+     * @param nbDim the number of dimensions.
+     */
+    public
+    void setDimensions(final int nbDim) {
+        if (nbDim < 1)
+            throw new IllegalArgumentException("The number of dimensions must be positive.");
+        if (lower != null && lower.length != nbDim)
+            throw new IllegalArgumentException("The bounds do not have " + nbDim + " dimensions.");
+        this.nbDim = nbDim;
+    }
+
+    /**
+     * Set the same bounds on every dimension, for the current number of dimensions.
+     * @param lower the lower bound.
+     * @param upper the upper bound.
+     */
+    public
+    void setBounds(final double lower, final double upper) {
+        double[] l = new double[nbDim];
+        double[] u = new double[nbDim];
+        Arrays.fill(l, lower);
+        Arrays.fill(u, upper);
+        setBounds(l, u);
+    }
+
+    /**
+     * Set the bounds of each dimension, the particles are initialised inside and cannot leave them.
+     * @param lower the lower bounds, one per dimension.
+     * @param upper the upper bounds, one per dimension.
+     */
+    public
+    void setBounds(final double[] lower, final double[] upper) {
+        if (lower.length != upper.length)
+            throw new IllegalArgumentException("The lower and upper bounds must have the same length.");
+        for (int k = 0; k < lower.length; k++) {
+            if (!(lower[k] <= upper[k]))
+                throw new IllegalArgumentException("The lower bound of dimension " + k + " is above the upper one.");
         }
+        this.nbDim = lower.length;
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+    }
+
+    /**
+     * Set the coefficients of the velocity update: v = w * v + c1 * U * (personal best - x) + c2 * U * (best - x).
+     * @param w the inertia weight (by default 0.7).
+     * @param c1 the cognitive acceleration (by default 1).
+     * @param c2 the social acceleration (by default 1).
+     */
+    public
+    void setCoefficients(final double w, final double c1, final double c2) {
+        this.w = w;
+        this.c1 = c1;
+        this.c2 = c2;
+    }
+
+    /**
+     * Set the maximum absolute velocity along each dimension (by default 10).
+     * @param maxSpeed the maximum velocity.
+     */
+    public
+    void setMaxSpeed(final double maxSpeed) {
+        if (!(maxSpeed > 0))
+            throw new IllegalArgumentException("The maximum velocity must be positive.");
+        this.maxSpeed = maxSpeed;
+    }
+
+    /**
+     * Set when the best position of the swarm is updated (by default SYNCHRONOUS).
+     * @param mode the mode.
+     */
+    public
+    void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Set the neighbourhood followed by each particle (by default GLOBAL), with 3 informed particles for RANDOM.
+     * @param topology the topology.
+     */
+    public
+    void setTopology(Topology topology) {
+        setTopology(topology, 3);
+    }
+
+    /**
+     * Set the neighbourhood followed by each particle.
+     * @param topology the topology.
+     * @param k the number of particles informed by each particle, only used by RANDOM.
+     */
+    public
+    void setTopology(Topology topology, final int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("The number of informed particles must be positive.");
+        this.topology = topology;
+        this.nbInformed = k;
+    }
+
+    /**
+     * Stop the runs when the best fitness is above target - tolerance (by default, never).
+     * @param target the target fitness, e.g. the known maximum of the fitness function.
+     * @param tolerance the tolerance.
+     */
+    public
+    void setTargetFitness(final double target, final double tolerance) {
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("The tolerance must be non-negative.");
+        this.targetFitness = target;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Stop the runs when the swarm collapsed: every particle is within a radius of the best position (by default 0,
+     * i.e. never).
+     * @param radius the radius.
+     */
+    public
+    void setRadiusTolerance(final double radius) {
+        if (!(radius >= 0))
+            throw new IllegalArgumentException("The radius must be non-negative.");
+        this.minRadius = radius;
+    }
+
+    /**
+     * Stop the runs when the best fitness improved by at most minImprovement during consecutive iterations (by
+     * default 0 iterations, i.e. never).
+     * @param iterations the number of iterations without improvement.
+     * @param minImprovement the minimum improvement resetting the count.
+     */
+    public
+    void setStall(final int iterations, final double minImprovement) {
+        if (iterations < 0 || !(minImprovement >= 0))
+            throw new IllegalArgumentException("The number of iterations and the improvement must be non-negative.");
+        this.stallIterations = iterations;
+        this.minImprovement = minImprovement;
+    }
+
+    /**
+     * Stop the runs after a duration, checked between iterations (by default 0, i.e. never).
+     * @param millis the duration in milliseconds.
+     */
+    public
+    void setTimeBudget(final long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("The time budget must be non-negative.");
+        this.timeBudget = millis;
+    }
+
+    /**
+     * Set the executor used to evaluate the swarm in parallel (e.g. a ForkJoinPool), with 16 particles per task.
+     * @param executor the executor or null to evaluate the swarm on the calling thread.
+     */
+    public
+    void setExecutor(ExecutorService executor) {
+        setExecutor(executor, 16);
+    }
+
+    /**
+     * Set the executor used to evaluate the swarm in parallel.
+     * @param executor the executor or null to evaluate the swarm on the calling thread.
+     * @param chunkSize the number of particles handled by each task.
+     */
+    public
+    void setExecutor(ExecutorService executor, final int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Compute the individual fitness.
+     * @param x the individual.
+     * @return the fitness.
+     */
+    public
+    double fitness(final double[] x) {
+        return -1 * Math.abs(2 * x[0] * x[0] + 5 * x[1] + 10);
     }
 
     /**
@@ -46,64 +343,425 @@ public class ParticleSwarmOptimisation {
      */
     public
     Double fitness(final Double[] x) {
-        return -1 * Math.abs(2 * Math.pow(x[0], 2) + 5 * x[1] + 10);
+        double[] p = new double[x.length];
+        for (int i = 0; i < x.length; i++)
+            p[i] = x[i];
+        return (objective != null) ? objective.applyAsDouble(p) : fitness(p);
     }
 
     /**
-     * Update the speed of the particle.
-     * @param ind the particle neighbours.
-     * @param x the particle.
+     * Getter.
+     * @return the best position found by the last run.
+     */
+    public
+    double[] getBest() {
+        return global.clone();
+    }
+
+    /**
+     * Getter.
+     * @return the fitness of the best position found by the last run.
+     */
+    public
+    double getBestFitness() {
+        return globalFit;
+    }
+
+    /**
+     * Getter.
+     * @return the number of iterations run by the last run.
+     */
+    public
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Getter.
+     * @return the reason why the last run stopped, or null if no run ended.
+     */
+    public
+    StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Create the swarm, at random positions and with random velocities.
+     * @param popSize the population size.
+     * @param range the range of initial possible value of each axis, used if no bounds are set.
+     */
+    private
+    void init(final int popSize, final double range) {
+        n = popSize;
+        final int size = popSize * nbDim;
+        if (pos.length != size) {
+            pos = new double[size];
+            speed = new double[size];
+            best = new double[size];
+        }
+        if (fit.length != popSize) {
+            fit = new double[popSize];
+            bestFit = new double[popSize];
+        }
+        global = new double[nbDim];
+        globalFit = Double.NEGATIVE_INFINITY;
+        final int nbChunks = (executor == null) ? 1 : Math.max(1, (popSize + chunkSize - 1) / chunkSize);
+        randoms = new RandomSource[nbChunks];
+        scratch = new double[nbChunks][nbDim];
+        // The main generator is split once whatever the number of chunks, so the synchronous mode stays reproducible.
+        final RandomSource streams = r.split();
+        for (int c = 0; c < nbChunks; c++)
+            randoms[c] = streams.split();
+        for (int i = 0; i < n; i++) {
+            final int o = i * nbDim;
+            for (int k = 0; k < nbDim; k++) {
+                final double lo = (lower != null) ? lower[k] : -range;
+                final double hi = (upper != null) ? upper[k] : range;
+                pos[o + k] = lo + (hi - lo) * r.nextDouble();
+                best[o + k] = pos[o + k];
+                speed[o + k] = (hi - lo) * (r.nextDouble() - 0.5);
+            }
+        }
+        parallel((int from, int to, int c) -> evaluate(from, to, c));
+        for (int i = 0; i < n; i++) {
+            bestFit[i] = fit[i];
+            updateGlobal(i);
+        }
+        connect();
+    }
+
+    /**
+     * Build the neighbourhoods of the topology, and find the best personal best in each of them.
+     */
+    private
+    void connect() {
+        if (topology == Topology.GLOBAL)
+            return;
+        informed = new int[n][];
+        final int cols = Math.max(1, (int) Math.round(Math.sqrt(n))) % n;
+        for (int j = 0; j < n; j++) {
+            switch (topology) {
+                case RING:
+                    informed[j] = new int[] {j, (j + n - 1) % n, (j + 1) % n};
+                    break;
+                case VON_NEUMANN:
+                    informed[j] = new int[] {j, (j + n - 1) % n, (j + 1) % n, (j + n - cols) % n, (j + cols) % n};
+                    break;
+                default:
+                    informed[j] = new int[nbInformed + 1];
+                    informed[j][0] = j;
+                    for (int l = 1; l <= nbInformed; l++)
+                        informed[j][l] = r.nextInt(n);
+            }
+        }
+        if (lbest.length != n)
+            lbest = new int[n];
+        for (int i = 0; i < n; i++)
+            lbest[i] = i;
+        for (int j = 0; j < n; j++)
+            inform(j);
+    }
+
+    /**
+     * Let the particles informed by a particle follow its personal best if it is the best of their neighbourhood.
+     * @param j the particle.
+     */
+    private
+    void inform(final int j) {
+        for (int i : informed[j]) {
+            if (bestFit[j] > bestFit[lbest[i]])
+                lbest[i] = j;
+        }
+    }
+
+    /**
+     * Run one iteration.
+     */
+    private
+    void iterate() {
+        if (mode == Mode.SYNCHRONOUS) {
+            // The moves draw from the main generator in particle order, the run is reproducible whatever the executor.
+            move(0, n, r, 0);
+            parallel((int from, int to, int c) -> evaluate(from, to, c));
+            for (int i = 0; i < n; i++)
+                updateBest(i);
+        } else {
+            parallel((int from, int to, int c) -> {
+                for (int i = from; i < to; i++) {
+                    move(i, i + 1, randoms[c], c);
+                    evaluate(i, i + 1, c);
+                    updateBest(i);
+                }
+            });
+        }
+    }
+
+    /**
+     * Move particles, toward their personal best and the best position found by their neighbourhood so far.
+     * @param from the first particle (inclusive).
+     * @param to the last particle (exclusive).
+     * @param r the random number generator.
+     * @param c the chunk of the particles, it owns a scratch position.
+     */
+    private
+    void move(final int from, final int to, RandomSource r, final int c) {
+        final double[] g = global;
+        for (int i = from; i < to; i++) {
+            final int o = i * nbDim;
+            double[] social = g;
+            int s = 0;
+            if (topology != Topology.GLOBAL) {
+                if (mode == Mode.SYNCHRONOUS) {
+                    social = best;
+                    s = lbest[i] * nbDim;
+                } else {
+                    // The personal bests of the other particles are written concurrently, they are copied under lock.
+                    social = scratch[c];
+                    synchronized (lock) {
+                        System.arraycopy(best, lbest[i] * nbDim, social, 0, nbDim);
+                    }
+                }
+            }
+            for (int k = 0; k < nbDim; k++) {
+                double v =
+                        w * speed[o + k] +
+                        c1 * r.nextDouble() * (best[o + k] - pos[o + k]) +
+                        c2 * r.nextDouble() * (social[s + k] - pos[o + k]);
+                if (v < -maxSpeed)
+                    v = -maxSpeed;
+                if (v > maxSpeed)
+                    v = maxSpeed;
+                double x = pos[o + k] + v;
+                // A particle reaching a bound stops there.
+                if (lower != null && x < lower[k]) {
+                    x = lower[k];
+                    v = 0;
+                } else if (upper != null && x > upper[k]) {
+                    x = upper[k];
+                    v = 0;
+                }
+                speed[o + k] = v;
+                pos[o + k] = x;
+            }
+        }
+    }
+
+    /**
+     * Compute the fitness of the positions of particles.
+     * @param from the first particle (inclusive).
+     * @param to the last particle (exclusive).
+     * @param c the chunk of the particles, it owns a scratch position.
      */
     private
-    void updateSpeed(List<Individual> ind, Individual x) {
-        List<Double> f = ind.stream().map(i -> fitness(i.pos)).collect(Collectors.toList());
-        int index = f.indexOf(Collections.max(f));
-        Random r = new Random();
-        for (int i = 0; i < NB_DIM; i++) {
-            x.speed[i] =
-                    W * x.speed[i] +
-                    r.nextDouble() * (x.best[i] - x.pos[i]) +
-                    r.nextDouble() * (ind.get(index).pos[i] - x.pos[i]);
-            if (x.speed[i] < -MAX_SPEED)
-                x.speed[i] = -MAX_SPEED;
-            if (x.speed[i] > MAX_SPEED)
-                x.speed[i] = MAX_SPEED;
+    void evaluate(final int from, final int to, final int c) {
+        if (batchFitness != null) {
+            batchFitness.apply(pos, from, to, nbDim, fit);
+            return;
         }
+        final double[] x = scratch[c];
+        for (int i = from; i < to; i++) {
+            System.arraycopy(pos, i * nbDim, x, 0, nbDim);
+            fit[i] = (objective != null) ? objective.applyAsDouble(x) : fitness(x);
+        }
+    }
+
+    /**
+     * Update the personal best of a particle, the neighbourhoods it informs and the best of the swarm.
+     * @param i the particle.
+     */
+    private
+    void updateBest(final int i) {
+        if (!(fit[i] > bestFit[i]))
+            return;
+        if (mode == Mode.SYNCHRONOUS || topology == Topology.GLOBAL) {
+            improve(i);
+        } else {
+            synchronized (lock) {
+                improve(i);
+            }
+        }
+    }
+
+    /**
+     * Replace the personal best of a particle by its position.
+     * @param i the particle.
+     */
+    private
+    void improve(final int i) {
+        bestFit[i] = fit[i];
+        System.arraycopy(pos, i * nbDim, best, i * nbDim, nbDim);
+        if (topology != Topology.GLOBAL)
+            inform(i);
+        updateGlobal(i);
+    }
+
+    /**
+     * Replace the best of the swarm by the personal best of a particle if it is better.
+     * @param i the particle.
+     */
+    private
+    void updateGlobal(final int i) {
+        synchronized (lock) {
+            if (bestFit[i] > globalFit) {
+                globalFit = bestFit[i];
+                if (mode == Mode.SYNCHRONOUS) {
+                    System.arraycopy(best, i * nbDim, global, 0, nbDim);
+                } else {
+                    // The other particles read the best position concurrently, it is replaced instead of modified.
+                    global = Arrays.copyOfRange(best, i * nbDim, (i + 1) * nbDim);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the radius of the swarm.
+     * @return the largest distance between a particle and the best position.
+     */
+    private
+    double radius() {
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            final int o = i * nbDim;
+            double d = 0;
+            for (int k = 0; k < nbDim; k++)
+                d += (pos[o + k] - global[k]) * (pos[o + k] - global[k]);
+            max = Math.max(max, d);
+        }
+        return Math.sqrt(max);
+    }
+
+    /**
+     * Range of particles handled by a task.
+     */
+    @FunctionalInterface
+    private
+    interface Chunk {
+
+        /**
+         * Handle the particles between two indices.
+         * @param from the first particle (inclusive).
+         * @param to the last particle (exclusive).
+         * @param c the index of the chunk.
+         */
+        void run(int from, int to, int c);
     }
 
     /**
-     * Update the position of the particle.
-     * @param x the particle
+     * Run a task per chunk of particles on the executor, or a single one on the calling thread.
+     * @param chunk the task.
      */
     private
-    void updatePosition(Individual x) {
-        for (int i = 0; i < NB_DIM; i++) {
-            x.pos[i] = x.pos[i] + x.speed[i];
+    void parallel(Chunk chunk) {
+        if (executor == null || randoms.length == 1) {
+            chunk.run(0, n, 0);
+            return;
+        }
+        List<Future<?>> tasks = new ArrayList<>(randoms.length);
+        for (int c = 0; c < randoms.length; c++) {
+            final int from = c * chunkSize;
+            final int to = Math.min(from + chunkSize, n);
+            final int index = c;
+            tasks.add(executor.submit(() -> chunk.run(from, to, index)));
+        }
+        try {
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The evaluation has been interrupted.", e);
+        } catch (ExecutionException e) {
+            tasks.forEach((task) -> task.cancel(true));
+            throw new IllegalStateException("The evaluation of the swarm failed.", e.getCause());
         }
     }
 
     /**
-     * Run the PSO algorithm.
+     * Run the PSO algorithm inside the bounds, until a stopping criterion is met (see getStopReason).
      * @param popSize the population size.
-     * @param nbIter the number of iterations to run.
+     * @param nbIter the maximum number of iterations to run.
+     * @return the best solution found.
+     */
+    public
+    double[] run(final int popSize, final int nbIter) {
+        if (lower == null)
+            throw new IllegalStateException("The bounds must be set, or the initial range given.");
+        search(popSize, nbIter, 0);
+        return getBest();
+    }
+
+    /**
+     * Run the PSO algorithm, until a stopping criterion is met (see getIterations and getStopReason).
+     * @param popSize the population size.
+     * @param nbIter the maximum number of iterations to run.
      * @param range the range of initial possible value of each axis (x0, x1, ..., xn belong to [-k; k]).
      * @return the best solution found.
      */
     public
     Double[] run(final int popSize, final int nbIter, final int range) {
+        search(popSize, nbIter, range);
+        // Return the best.
+        Double[] solution = new Double[nbDim];
+        for (int k = 0; k < nbDim; k++)
+            solution[k] = global[k];
+        return solution;
+    }
+
+    /**
+     * Initialise the swarm and run the iterations until a stopping criterion is met.
+     * @param popSize the population size.
+     * @param nbIter the maximum number of iterations to run.
+     * @param range the range of initial possible value of each axis, used if no bounds are set.
+     */
+    private
+    void search(final int popSize, final int nbIter, final double range) {
+        if (objective == null && batchFitness == null && nbDim < 2)
+            throw new IllegalStateException("The default fitness needs two dimensions, an objective must be set.");
+        final long start = System.nanoTime();
+        stopReason = null;
         // Initialize the model.
-        List<Individual> ind = new ArrayList<>();
-        for (int j = 0; j < popSize; j++) {
-            ind.add(new Individual(range));
-        }
+        init(popSize, range);
         // Train the model / Search the solution.
-        for (int i = 0; i < nbIter; i++) {
-            ind.forEach((x) -> updateSpeed(ind, x));
-            ind.forEach(this::updatePosition);
+        double reference = globalFit;
+        int stall = 0;
+        for (iterations = 0; iterations < nbIter; iterations++) {
+            stopReason = stop(start, stall);
+            if (stopReason != null)
+                return;
+            final double previous = globalFit;
+            iterate();
+            if (globalFit - reference > minImprovement) {
+                reference = globalFit;
+                stall = 0;
+            } else {
+                ++stall;
+            }
+            // The random neighbourhoods are drawn again when the swarm did not progress.
+            if (topology == Topology.RANDOM && !(globalFit > previous))
+                connect();
         }
-        // Return the best.
-        List<Double> f = ind.stream().map(i -> fitness(i.pos)).collect(Collectors.toList());
-        int index = f.indexOf(Collections.max(f));
-        return ind.get(index).pos;
+        stopReason = stop(start, stall);
+        if (stopReason == null)
+            stopReason = StopReason.ITERATIONS;
+    }
+
+    /**
+     * Check the stopping criteria other than the number of iterations.
+     * @param start the time at which the run started, in nanoseconds.
+     * @param stall the number of iterations without enough improvement.
+     * @return the reason to stop, or null to continue.
+     */
+    private
+    StopReason stop(final long start, final int stall) {
+        if (globalFit >= targetFitness - tolerance)
+            return StopReason.FITNESS;
+        if (minRadius > 0 && radius() <= minRadius)
+            return StopReason.RADIUS;
+        if (stallIterations > 0 && stall >= stallIterations)
+            return StopReason.STALL;
+        if (timeBudget > 0 && System.nanoTime() - start >= timeBudget * 1000000L)
+            return StopReason.TIME;
+        return null;
     }
 }
@@ -0,0 +1,240 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Array-backed population of the genetic algorithm, the fitness of the i-th individual is stored at the i-th index.
+ * The buffers are preallocated and reused from one generation to the next.
+ * @param <T> The individuals' type.
+ */
+final
+class Population<T> {
+
+    Object[] individuals;
+    double[] fitness;
+    int size = 0;
+
+    // Scratch buffers used by the selection strategies.
+    int[] order;
+    double[] keys;
+
+    /**
+     * Construct an empty population.
+     * @param capacity the maximum number of individuals before the buffers are grown.
+     */
+    Population(final int capacity) {
+        individuals = new Object[capacity];
+        fitness = new double[capacity];
+        order = new int[capacity];
+        keys = new double[capacity];
+    }
+
+    /**
+     * Make sure the population can store a number of individuals without growing.
+     * @param capacity the number of individuals.
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity <= individuals.length)
+            return;
+        // The buffers grow geometrically, so adding the individuals one by one costs amortised O(1) each.
+        final int length = Math.max(capacity, 2 * individuals.length);
+        individuals = Arrays.copyOf(individuals, length);
+        fitness = Arrays.copyOf(fitness, length);
+        order = new int[length];
+        keys = new double[length];
+    }
+
+    /**
+     * Remove all the individuals.
+     */
+    void clear() {
+        Arrays.fill(individuals, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Add an individual at the end of the population.
+     * @param x the individual.
+     * @param f the individual's fitness.
+     */
+    void add(T x, final double f) {
+        ensureCapacity(size + 1);
+        individuals[size] = x;
+        fitness[size] = f;
+        ++size;
+    }
+
+    /**
+     * Add the i-th individual of another population at the end of the population.
+     * @param p the other population.
+     * @param i the index of the individual in the other population.
+     */
+    void add(Population<T> p, final int i) {
+        add(p.get(i), p.fitness[i]);
+    }
+
+    /**
+     * Getter.
+     * @param i the individual's index.
+     * @return the i-th individual.
+     */
+    @SuppressWarnings("unchecked")
+    T get(final int i) {
+        return (T) individuals[i];
+    }
+
+    /**
+     * Remove the i-th individual in constant time, the last individual takes its place.
+     * @param i the individual's index.
+     */
+    void swapRemove(final int i) {
+        --size;
+        individuals[i] = individuals[size];
+        fitness[i] = fitness[size];
+        individuals[size] = null;
+    }
+
+    /**
+     * Return a view of the individuals from an index to the end of the population.
+     * @param from the first index (inclusive).
+     * @return the view.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> view(final int from) {
+        return Arrays.asList((T[]) individuals).subList(from, size);
+    }
+
+    /**
+     * Find the index of the fittest individual.
+     * @return the index or -1 if the population is empty.
+     */
+    int fittest() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best == -1 || fitness[i] > fitness[best])
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Sort the indices of the first n elements of order, the index with the highest key goes first.
+     * Equal keys are ordered by increasing index, so the result does not depend on the algorithm.
+     * @param order the indices to sort.
+     * @param keys the keys of each index.
+     * @param n the number of indices to sort.
+     */
+    static
+    void sortDescending(int[] order, double[] keys, final int n) {
+        quickSort(order, keys, 0, n - 1);
+    }
+
+    /**
+     * Move the indices of the n highest keys to the first n elements of order (quickselect), in linear time on average.
+     * The first n elements are not sorted.
+     * @param order the indices to partition.
+     * @param keys the keys of each index.
+     * @param n the number of indices to keep at the beginning.
+     * @param size the number of indices.
+     */
+    static
+    void selectTop(int[] order, double[] keys, final int n, final int size) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo < hi) {
+            final int p = partition(order, keys, lo, hi);
+            if (p == n || p == n - 1)
+                return;
+            if (p < n)
+                lo = p + 1;
+            else
+                hi = p - 1;
+        }
+    }
+
+    /**
+     * Check if the index a must be placed before the index b.
+     * @param a the first index.
+     * @param b the second index.
+     * @param keys the keys of each index.
+     * @return true if a goes first.
+     */
+    static
+    boolean before(final int a, final int b, double[] keys) {
+        final int c = Double.compare(keys[a], keys[b]);
+        return c > 0 || (c == 0 && a < b);
+    }
+
+    /**
+     * Sort the indices between lo and hi (both inclusive).
+     * @param order the indices to sort.
+     * @param keys the keys of each index.
+     * @param lo the first position.
+     * @param hi the last position.
+     */
+    private static
+    void quickSort(int[] order, double[] keys, int lo, int hi) {
+        while (hi - lo > 16) {
+            final int p = partition(order, keys, lo, hi);
+            // Recurse on the smallest part to bound the stack depth.
+            if (p - lo < hi - p) {
+                quickSort(order, keys, lo, p - 1);
+                lo = p + 1;
+            } else {
+                quickSort(order, keys, p + 1, hi);
+                hi = p - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            final int x = order[i];
+            int j = i - 1;
+            while (j >= lo && before(x, order[j], keys)) {
+                order[j + 1] = order[j];
+                --j;
+            }
+            order[j + 1] = x;
+        }
+    }
+
+    /**
+     * Partition the indices between lo and hi around a median of three pivot.
+     * @param order the indices to partition.
+     * @param keys the keys of each index.
+     * @param lo the first position.
+     * @param hi the last position.
+     * @return the final position of the pivot.
+     */
+    static
+    int partition(int[] order, double[] keys, final int lo, final int hi) {
+        final int mid = (lo + hi) >>> 1;
+        if (before(order[mid], order[lo], keys))
+            swap(order, mid, lo);
+        if (before(order[hi], order[lo], keys))
+            swap(order, hi, lo);
+        if (before(order[hi], order[mid], keys))
+            swap(order, hi, mid);
+        swap(order, mid, hi);
+        final int pivot = order[hi];
+        int store = lo;
+        for (int i = lo; i < hi; i++) {
+            if (before(order[i], pivot, keys))
+                swap(order, i, store++);
+        }
+        swap(order, store, hi);
+        return store;
+    }
+
+    /**
+     * Swap two elements of an array.
+     * @param a the array.
+     * @param i the first position.
+     * @param j the second position.
+     */
+    static
+    void swap(int[] a, final int i, final int j) {
+        final int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
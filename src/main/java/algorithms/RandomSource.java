@@ -0,0 +1,258 @@
+package algorithms;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeded random number generator shared by all the algorithms (SplitMix64, as java.util.SplittableRandom).
+ * It is not thread-safe: each thread or parallel worker must use its own instance, obtained by split or jump, so that a
+ * parallel run is reproducible from a single seed. It extends Random so it can be passed to any existing code.
+ */
+public
+class RandomSource extends Random {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final AtomicLong SEEDER = new AtomicLong(System.nanoTime());
+
+    private long state;
+    private long gamma;
+
+    /**
+     * Construct a generator from a seed.
+     * @param seed the seed.
+     */
+    public
+    RandomSource(final long seed) {
+        super(seed);
+        this.state = seed;
+        this.gamma = GOLDEN_GAMMA;
+    }
+
+    /**
+     * Construct a generator from its state.
+     * @param state the state returned by getState.
+     */
+    public
+    RandomSource(final long[] state) {
+        this(state[0], state[1]);
+    }
+
+    /**
+     * Construct a generator from its state.
+     * @param state the state.
+     * @param gamma the increment of the state (odd).
+     */
+    private
+    RandomSource(final long state, final long gamma) {
+        super(state);
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Create a generator with a different seed at each call.
+     * @return the generator.
+     */
+    public static
+    RandomSource create() {
+        return new RandomSource(mix64(SEEDER.getAndAdd(GOLDEN_GAMMA << 1)));
+    }
+
+    /**
+     * Create a new generator, statistically independent from this one, and advance this one.
+     * @return the new generator.
+     */
+    public
+    RandomSource split() {
+        return new RandomSource(nextLong(), mixGamma(nextLong()));
+    }
+
+    /**
+     * Advance the generator as if n numbers had been drawn, in constant time.
+     * @param n the number of numbers to skip.
+     */
+    public
+    void jump(final long n) {
+        state += n * gamma;
+    }
+
+    /**
+     * Getter.
+     * @return the state of the generator, a generator constructed from it draws the same numbers.
+     */
+    public
+    long[] getState() {
+        return new long[]{state, gamma};
+    }
+
+    @Override
+    public
+    void setSeed(final long seed) {
+        // Called by the constructor of Random before the fields of this class are initialised.
+        this.state = seed;
+        this.gamma = GOLDEN_GAMMA;
+    }
+
+    @Override
+    protected
+    int next(final int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public
+    long nextLong() {
+        state += gamma;
+        return mix64(state);
+    }
+
+    @Override
+    public
+    int nextInt() {
+        return (int) nextLong();
+    }
+
+    @Override
+    public
+    int nextInt(final int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("The bound must be positive.");
+        // Lemire's multiply-and-reject, unbiased.
+        long m = (nextLong() >>> 32) * bound;
+        long l = m & 0xffffffffL;
+        if (l < bound) {
+            final long t = (0x100000000L - bound) % bound;
+            while (l < t) {
+                m = (nextLong() >>> 32) * bound;
+                l = m & 0xffffffffL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    @Override
+    public
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public
+    float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24F;
+    }
+
+    @Override
+    public
+    boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    @Override
+    public
+    double nextGaussian() {
+        // Marsaglia polar method, the second value is dropped so the state fits in getState.
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * nextDouble() - 1;
+            v = 2 * nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    /**
+     * Draw a number from the exponential distribution of rate one.
+     * @return the number.
+     */
+    public
+    double nextExponential() {
+        return -Math.log(1D - nextDouble());
+    }
+
+    /**
+     * Draw a number from a Poisson distribution.
+     * Small means use the multiplication method, large means the transformed rejection of Hormann (PTRS).
+     * @param mean the mean of the distribution.
+     * @return the number.
+     */
+    public
+    long nextPoisson(final double mean) {
+        if (!(mean > 0))
+            return 0;
+        if (mean < 10) {
+            final double l = Math.exp(-mean);
+            long k = 0;
+            double p = nextDouble();
+            while (p > l) {
+                ++k;
+                p *= nextDouble();
+            }
+            return k;
+        }
+        final double slam = Math.sqrt(mean);
+        final double loglam = Math.log(mean);
+        final double b = 0.931 + 2.53 * slam;
+        final double a = -0.059 + 0.02483 * b;
+        final double invalpha = 1.1239 + 1.1328 / (b - 3.4);
+        final double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            final double u = nextDouble() - 0.5;
+            final double v = nextDouble();
+            final double us = 0.5 - Math.abs(u);
+            final long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if (us >= 0.07 && v <= vr)
+                return k;
+            if (k < 0 || (us < 0.013 && v > us))
+                continue;
+            if (Math.log(v) + Math.log(invalpha) - Math.log(a / (us * us) + b) <= -mean + k * loglam - logFactorial(k))
+                return k;
+        }
+    }
+
+    /**
+     * Compute the logarithm of the factorial (Stirling series above ten).
+     * @param k the number.
+     * @return log(k!).
+     */
+    private static
+    double logFactorial(final long k) {
+        if (k < 10) {
+            double f = 1;
+            for (int i = 2; i <= k; i++)
+                f *= i;
+            return Math.log(f);
+        }
+        final double n = k + 1;
+        return (n - 0.5) * Math.log(n) - n + 0.5 * Math.log(2 * Math.PI)
+                + 1 / (12 * n) - 1 / (360 * n * n * n) + 1 / (1260 * n * n * n * n * n);
+    }
+
+    /**
+     * Mix the bits of a number (variant 13 of Stafford's mixer).
+     * @param z the number.
+     * @return the mixed number.
+     */
+    private static
+    long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Compute a gamma with enough bit transitions.
+     * @param z the number.
+     * @return the gamma (odd).
+     */
+    private static
+    long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        return (Long.bitCount(z ^ (z >>> 1)) < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,30 @@
+package algorithms;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of the rows of a one dimensional automaton (see RowSinks for the implementations).
+ * The rows are given packed, cell j being the bit (j % 64) of the word (j / 64).
+ */
+public
+interface RowSink extends Closeable {
+
+    /**
+     * Write a row.
+     * @param generation the generation of the row.
+     * @param words the packed cells, the array is reused after the call.
+     * @param width the number of cells.
+     * @throws IOException if the row cannot be written.
+     */
+    void write(long generation, long[] words, int width) throws IOException;
+
+    /**
+     * Write what is buffered and release the resources.
+     * @throws IOException if the sink cannot be closed.
+     */
+    @Override
+    default
+    void close() throws IOException {
+    }
+}
@@ -0,0 +1,223 @@
+package algorithms;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementations of RowSink.
+ */
+public final
+class RowSinks {
+
+    /**
+     * No instance.
+     */
+    private
+    RowSinks() {
+    }
+
+    /**
+     * Create a sink writing each row as a line of 0 and 1, with one write per row.
+     * @param out the output stream, it is flushed but not closed by the sink.
+     * @return the sink.
+     */
+    public static
+    RowSink text(OutputStream out) {
+        return new Text(out);
+    }
+
+    /**
+     * Create a sink writing the rows as a space-time diagram in a binary PBM image (P4), one row per line of pixels.
+     * @param file the image file, it is replaced if it exists.
+     * @return the sink.
+     */
+    public static
+    RowSink pbm(File file) {
+        return new Pbm(file);
+    }
+
+    /**
+     * Create a sink writing the rows as a space-time diagram in a PNG image. The PNG is encoded when the sink is
+     * closed, so the rows are kept in memory (one bit per cell) until then.
+     * @param file the image file, it is replaced if it exists.
+     * @return the sink.
+     */
+    public static
+    RowSink png(File file) {
+        return new Png(file);
+    }
+
+    /**
+     * Create a sink ignoring the rows, e.g. to measure the cost of the simulation alone.
+     * @return the sink.
+     */
+    public static
+    RowSink none() {
+        return (long generation, long[] words, int width) -> {};
+    }
+
+    /**
+     * Text sink.
+     */
+    private static
+    class Text implements RowSink {
+
+        private final OutputStream out;
+        private byte[] line = new byte[0];
+
+        /**
+         * Construct the sink.
+         * @param out the output stream.
+         */
+        Text(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public
+        void write(final long generation, final long[] words, final int width) throws IOException {
+            if (line.length != width + 1) {
+                line = new byte[width + 1];
+                line[width] = '\n';
+            }
+            for (int j = 0; j < width; j++)
+                line[j] = (byte) ('0' + ((words[j >>> 6] >>> j) & 1L));
+            out.write(line);
+        }
+
+        @Override
+        public
+        void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * PBM sink, the height in the header is patched when the sink is closed.
+     */
+    private static
+    class Pbm implements RowSink {
+
+        // The height is right-aligned in a field wide enough for any long, PBM allows any whitespace before it.
+        private static final int HEIGHT_FIELD = 20;
+
+        private final File file;
+        private RandomAccessFile raf = null;
+        private OutputStream out = null;
+        private byte[] bytes = new byte[0];
+        private long headerEnd = 0;
+        private int width = -1;
+        private long height = 0;
+
+        /**
+         * Construct the sink.
+         * @param file the image file.
+         */
+        Pbm(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public
+        void write(final long generation, final long[] words, final int width) throws IOException {
+            if (out == null) {
+                this.width = width;
+                raf = new RandomAccessFile(file, "rw");
+                raf.setLength(0);
+                final byte[] header = header(0);
+                raf.write(header);
+                headerEnd = header.length;
+                out = new BufferedOutputStream(new FileOutputStream(raf.getFD()), 1 << 16);
+                bytes = new byte[(width + 7) >>> 3];
+            } else if (width != this.width) {
+                throw new IOException("The rows of an image must have the same width.");
+            }
+            // PBM stores the leftmost pixel in the most significant bit, and 1 is black.
+            for (int b = 0; b < bytes.length; b++)
+                bytes[b] = (byte) (Integer.reverse((int) (words[b >>> 3] >>> ((b & 7) << 3)) & 0xFF) >>> 24);
+            out.write(bytes);
+            ++height;
+        }
+
+        @Override
+        public
+        void close() throws IOException {
+            if (out == null)
+                return;
+            try {
+                out.flush();
+                raf.seek(0);
+                final byte[] header = header(height);
+                if (header.length != headerEnd)
+                    throw new IOException("The PBM header cannot be patched.");
+                raf.write(header);
+            } finally {
+                raf.close();
+                out = null;
+            }
+        }
+
+        /**
+         * Build the header.
+         * @param height the number of rows.
+         * @return the header.
+         */
+        private
+        byte[] header(final long height) {
+            return String.format("P4\n%d %" + HEIGHT_FIELD + "d\n", width, height).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * PNG sink.
+     */
+    private static
+    class Png implements RowSink {
+
+        private final File file;
+        private final List<byte[]> rows = new ArrayList<>();
+        private int width = -1;
+
+        /**
+         * Construct the sink.
+         * @param file the image file.
+         */
+        Png(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public
+        void write(final long generation, final long[] words, final int width) throws IOException {
+            if (this.width == -1)
+                this.width = width;
+            else if (width != this.width)
+                throw new IOException("The rows of an image must have the same width.");
+            byte[] row = new byte[(width + 7) >>> 3];
+            // The binary images of Java store the leftmost pixel in the most significant bit, and 1 is white.
+            for (int b = 0; b < row.length; b++)
+                row[b] = (byte) ~(Integer.reverse((int) (words[b >>> 3] >>> ((b & 7) << 3)) & 0xFF) >>> 24);
+            rows.add(row);
+        }
+
+        @Override
+        public
+        void close() throws IOException {
+            if (rows.isEmpty())
+                return;
+            BufferedImage image = new BufferedImage(width, rows.size(), BufferedImage.TYPE_BYTE_BINARY);
+            final byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            final int stride = (width + 7) >>> 3;
+            for (int y = 0; y < rows.size(); y++)
+                System.arraycopy(rows.get(y), 0, data, y * stride, stride);
+            rows.clear();
+            if (!ImageIO.write(image, "png", file))
+                throw new IOException("No PNG writer is available.");
+        }
+    }
+}
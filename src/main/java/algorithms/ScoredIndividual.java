@@ -0,0 +1,41 @@
+package algorithms;
+
+/**
+ * An individual and its fitness, computed once when the individual is created.
+ * @param <T> The individual's type.
+ */
+public final
+class ScoredIndividual<T> {
+
+    private final T individual;
+    private final double fitness;
+
+    /**
+     * Construct a scored individual.
+     * @param individual the individual.
+     * @param fitness the individual's fitness.
+     */
+    public
+    ScoredIndividual(T individual, final double fitness) {
+        this.individual = individual;
+        this.fitness = fitness;
+    }
+
+    /**
+     * Getter.
+     * @return the individual.
+     */
+    public
+    T getIndividual() {
+        return individual;
+    }
+
+    /**
+     * Getter.
+     * @return the individual's fitness.
+     */
+    public
+    double getFitness() {
+        return fitness;
+    }
+}
@@ -1,12 +1,20 @@
 package algorithms;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * Implementation of the positive & negative selection algorithms.
+ * The candidate detectors are generated and tested in batches, on several threads if an executor is set, and a
+ * candidate is decided as soon as one pattern is close enough (positive) or too close (negative).
  */
 public
 class Selection {
@@ -22,6 +30,13 @@ class Selection {
         private List<T> p;
         private Supplier<T> gf;
         private BiFunction<T, T, Float> sf;
+        private ExecutorService executor = null;
+        private int batchSize = 256;
+        private long maxCandidates = Long.MAX_VALUE;
+        private List<Consumer<SelectionStatistics>> listeners = new ArrayList<>();
+        private SelectionStatistics statistics = null;
+        private MetricIndex<? super T> index = null;
+        private double radius = 0;
 
         /**
          * Construct the configuration.
@@ -45,6 +60,84 @@ class Selection {
             this.gf = gf;
             this.sf = sf;
         }
+
+        /**
+         * Set an index of the patterns (e.g. a KdTree or a BkTree built from p) replacing the similarity function:
+         * a candidate is close to a pattern if their distance is lower than or equal to the radius, and the
+         * similarity threshold is unused. Each candidate then costs a range query instead of a scan of the patterns.
+         * @param index the index or null to compare the candidates to every pattern.
+         * @param radius the largest distance at which a pattern is close.
+         */
+        public
+        void setIndex(MetricIndex<? super T> index, final double radius) {
+            if (!(radius >= 0))
+                throw new IllegalArgumentException("The radius must be non-negative.");
+            this.index = index;
+            this.radius = radius;
+        }
+
+        /**
+         * Set the executor used to test the candidates in parallel (e.g. a ForkJoinPool), with batches of 256
+         * candidates per task. The generation and similarity functions must then be thread-safe.
+         * @param executor the executor or null to test the candidates on the calling thread.
+         */
+        public
+        void setExecutor(ExecutorService executor) {
+            setExecutor(executor, 256);
+        }
+
+        /**
+         * Set the executor used to test the candidates in parallel.
+         * @param executor the executor or null to test the candidates on the calling thread.
+         * @param batchSize the maximum number of candidates tested by a task, between two reports of the progress.
+         */
+        public
+        void setExecutor(ExecutorService executor, final int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("The batch size must be positive.");
+            this.executor = executor;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Set the maximum number of candidates tested by a run (by default, no limit), the run then returns fewer
+         * detectors than required if the acceptance rate is too low.
+         * @param maxCandidates the maximum number of candidates.
+         */
+        public
+        void setMaxCandidates(final long maxCandidates) {
+            if (maxCandidates < 1)
+                throw new IllegalArgumentException("The maximum number of candidates must be positive.");
+            this.maxCandidates = maxCandidates;
+        }
+
+        /**
+         * Add a listener receiving the progress of the runs, on the calling thread after each round of batches.
+         * @param listener the listener.
+         */
+        public
+        void addListener(Consumer<SelectionStatistics> listener) {
+            this.listeners.add(listener);
+        }
+
+        /**
+         * Getter.
+         * @return the statistics of the last run using this configuration, or null if none ended.
+         */
+        public
+        SelectionStatistics getStatistics() {
+            return statistics;
+        }
+    }
+
+    /**
+     * Detectors accepted by a task, and the number of candidates it tested.
+     * @param <T> the patterns' type.
+     */
+    private static
+    class Batch<T> {
+        final List<T> detectors = new ArrayList<>();
+        long candidates = 0;
     }
 
     /**
@@ -55,21 +148,7 @@ class Selection {
      */
     public static <T>
     List<T> positive(Config<T> config) {
-        List<T> ds = new LinkedList<>();
-        int n = 0;
-        while (n < config.n) {
-            T d = config.gf.get();
-            Double maxSimilarity = config.p.stream()
-                    .map((x) -> config.sf.apply(x, d))
-                    .mapToDouble(Float::valueOf)
-                    .max()
-                    .orElse(Double.MIN_VALUE);
-            if (maxSimilarity >= config.s) {
-                ds.add(d);
-                n++;
-            }
-        }
-        return ds;
+        return select(config, true);
     }
 
     /**
@@ -80,20 +159,125 @@ class Selection {
      */
     public static <T>
     List<T> negative(Config<T> config) {
-        List<T> ds = new LinkedList<>();
-        int n = 0;
-        while (n < config.n) {
-            T d = config.gf.get();
-            Double maxSimilarity = config.p.stream()
-                    .map((x) -> config.sf.apply(x, d))
-                    .mapToDouble(Float::valueOf)
-                    .max()
-                    .orElse(Double.MIN_VALUE);
-            if (maxSimilarity <= config.s) {
-                ds.add(d);
-                n++;
+        return select(config, false);
+    }
+
+    /**
+     * Run the Negative Selection Algorithm and wrap the detectors to classify samples. If the configuration uses an
+     * index, an index of the detectors with the same radius should be set on the detector set.
+     * @param config the configuration of the algorithm.
+     * @param <T> the patterns' type.
+     * @return the detector set, using the similarity function and threshold of the configuration.
+     */
+    public static <T>
+    DetectorSet<T> detectors(Config<T> config) {
+        return new DetectorSet<>(negative(config), config.s, config.sf);
+    }
+
+    /**
+     * Generate candidates in rounds of batches until enough of them are accepted.
+     * @param config the configuration of the algorithm.
+     * @param positive true for the positive selection, false for the negative one.
+     * @param <T> the patterns' type.
+     * @return the detectors.
+     */
+    private static <T>
+    List<T> select(Config<T> config, final boolean positive) {
+        final long start = System.nanoTime();
+        final int nbTasks = (config.executor == null) ? 1 :
+                (config.executor instanceof ForkJoinPool) ? ((ForkJoinPool) config.executor).getParallelism() :
+                Runtime.getRuntime().availableProcessors();
+        List<T> ds = new ArrayList<>(Math.max(config.n, 0));
+        AtomicLong accepted = new AtomicLong();
+        long candidates = 0;
+        while (ds.size() < config.n && candidates < config.maxCandidates) {
+            // The remaining candidates are shared between the tasks, so the limit is never exceeded.
+            final long remaining = config.maxCandidates - candidates;
+            List<Batch<T>> batches = new ArrayList<>(nbTasks);
+            if (nbTasks == 1) {
+                batches.add(batch(config, positive, (int) Math.min(config.batchSize, remaining), accepted));
+            } else {
+                List<Future<Batch<T>>> tasks = new ArrayList<>(nbTasks);
+                for (int c = 0; c < nbTasks; c++) {
+                    final int size = (int) Math.min(
+                            config.batchSize, remaining / nbTasks + ((c < remaining % nbTasks) ? 1 : 0)
+                    );
+                    tasks.add(config.executor.submit(() -> batch(config, positive, size, accepted)));
+                }
+                try {
+                    for (Future<Batch<T>> task : tasks)
+                        batches.add(task.get());
+                } catch (InterruptedException e) {
+                    tasks.forEach((task) -> task.cancel(true));
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("The selection has been interrupted.", e);
+                } catch (ExecutionException e) {
+                    tasks.forEach((task) -> task.cancel(true));
+                    throw new IllegalStateException("The generation of the detectors failed.", e.getCause());
+                }
             }
+            for (Batch<T> batch : batches) {
+                candidates += batch.candidates;
+                for (T d : batch.detectors) {
+                    if (ds.size() < config.n)
+                        ds.add(d);
+                }
+            }
+            config.statistics = new SelectionStatistics(candidates, accepted.get(), config.n, System.nanoTime() - start);
+            for (Consumer<SelectionStatistics> listener : config.listeners)
+                listener.accept(config.statistics);
         }
+        if (candidates == 0)
+            config.statistics = new SelectionStatistics(candidates, accepted.get(), config.n, System.nanoTime() - start);
         return ds;
     }
+
+    /**
+     * Test a batch of candidates, stopping early when enough detectors are accepted by all the tasks.
+     * @param config the configuration of the algorithm.
+     * @param positive true for the positive selection, false for the negative one.
+     * @param size the maximum number of candidates.
+     * @param accepted the number of candidates accepted by all the tasks.
+     * @param <T> the patterns' type.
+     * @return the detectors accepted and the number of candidates tested.
+     */
+    private static <T>
+    Batch<T> batch(Config<T> config, final boolean positive, final int size, AtomicLong accepted) {
+        Batch<T> batch = new Batch<>();
+        while (batch.candidates < size && accepted.get() < config.n) {
+            T d = config.gf.get();
+            ++batch.candidates;
+            if (accept(config, d, positive)) {
+                batch.detectors.add(d);
+                accepted.incrementAndGet();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Test a candidate against the patterns, until one of them decides.
+     * @param config the configuration of the algorithm.
+     * @param d the candidate.
+     * @param positive true if a detector must be close to a pattern, false if it must be far from all of them.
+     * @param <T> the patterns' type.
+     * @return true if the candidate is accepted.
+     */
+    private static <T>
+    boolean accept(Config<T> config, T d, final boolean positive) {
+        if (config.index != null)
+            return positive ? config.index.anyWithin(d, config.radius) : !config.index.anyCloserThan(d, config.radius);
+        final float s = config.s;
+        for (T x : config.p) {
+            final float similarity = config.sf.apply(x, d);
+            if (positive && similarity >= s)
+                return true;
+            if (!positive && similarity > s)
+                return false;
+        }
+        // The maximum similarity to an empty list of patterns is Double.MIN_VALUE.
+        if (config.p.isEmpty())
+            return positive ? Double.MIN_VALUE >= s : Double.MIN_VALUE <= s;
+        return !positive;
+    }
 }
@@ -0,0 +1,91 @@
+package algorithms;
+
+/**
+ * Progress of the positive or negative selection algorithm, after a batch of candidate detectors.
+ */
+public final
+class SelectionStatistics {
+
+    private final long candidates;
+    private final long accepted;
+    private final int required;
+    private final long wallTime;
+
+    /**
+     * Construct the statistics.
+     * @param candidates the number of candidates tested since the beginning of the run.
+     * @param accepted the number of candidates accepted since the beginning of the run.
+     * @param required the number of detectors to generate.
+     * @param wallTime the time elapsed since the beginning of the run (in nanoseconds).
+     */
+    SelectionStatistics(final long candidates, final long accepted, final int required, final long wallTime) {
+        this.candidates = candidates;
+        this.accepted = accepted;
+        this.required = required;
+        this.wallTime = wallTime;
+    }
+
+    /**
+     * Getter.
+     * @return the number of candidates tested since the beginning of the run.
+     */
+    public
+    long getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Getter.
+     * @return the number of candidates accepted since the beginning of the run, it can exceed the number of
+     * detectors required when the last candidates are tested in parallel.
+     */
+    public
+    long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Getter.
+     * @return the number of detectors to generate.
+     */
+    public
+    int getRequired() {
+        return required;
+    }
+
+    /**
+     * Getter.
+     * @return the ratio of candidates accepted.
+     */
+    public
+    double getAcceptanceRate() {
+        return (candidates == 0) ? Double.NaN : (double) accepted / candidates;
+    }
+
+    /**
+     * Getter.
+     * @return the time elapsed since the beginning of the run (in nanoseconds).
+     */
+    public
+    long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Getter.
+     * @return the number of candidates tested per second since the beginning of the run.
+     */
+    public
+    double getCandidatesPerSecond() {
+        return (wallTime == 0) ? Double.NaN : candidates * 1e9 / wallTime;
+    }
+
+    @Override
+    public
+    String toString() {
+        return "Detectors " + Math.min(accepted, required) + "/" + required +
+                ": candidates = " + candidates +
+                ", acceptance rate = " + getAcceptanceRate() +
+                ", candidates/s = " + getCandidatesPerSecond();
+    }
+}
@@ -0,0 +1,129 @@
+package algorithms;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Binary serializer of the individuals, used to save and restore them.
+ * @param <T> The individuals' type.
+ */
+public
+interface Serializer<T> {
+
+    /**
+     * Write an individual.
+     * @param out the output.
+     * @param x the individual.
+     * @throws IOException if the individual cannot be written.
+     */
+    void write(DataOutput out, T x) throws IOException;
+
+    /**
+     * Read an individual.
+     * @param in the input.
+     * @return the individual.
+     * @throws IOException if the individual cannot be read.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Serializer of the strings (modified UTF-8).
+     * @return the serializer.
+     */
+    static
+    Serializer<String> string() {
+        return new Serializer<String>() {
+
+            @Override
+            public
+            void write(DataOutput out, String x) throws IOException {
+                out.writeUTF(x);
+            }
+
+            @Override
+            public
+            String read(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+
+    /**
+     * Serializer of the arrays of doubles, e.g. real-valued vectors.
+     * @return the serializer.
+     */
+    static
+    Serializer<double[]> doubles() {
+        return new Serializer<double[]>() {
+
+            @Override
+            public
+            void write(DataOutput out, double[] x) throws IOException {
+                out.writeInt(x.length);
+                for (double v : x)
+                    out.writeDouble(v);
+            }
+
+            @Override
+            public
+            double[] read(DataInput in) throws IOException {
+                final int length = readLength(in);
+                double[] x = new double[Math.min(length, 1 << 16)];
+                for (int i = 0; i < length; i++) {
+                    if (i == x.length)
+                        x = Arrays.copyOf(x, (int) Math.min(length, 2L * x.length));
+                    x[i] = in.readDouble();
+                }
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Serializer of the arrays of longs, e.g. packed bitstrings.
+     * @return the serializer.
+     */
+    static
+    Serializer<long[]> longs() {
+        return new Serializer<long[]>() {
+
+            @Override
+            public
+            void write(DataOutput out, long[] x) throws IOException {
+                out.writeInt(x.length);
+                for (long v : x)
+                    out.writeLong(v);
+            }
+
+            @Override
+            public
+            long[] read(DataInput in) throws IOException {
+                final int length = readLength(in);
+                long[] x = new long[Math.min(length, 1 << 16)];
+                for (int i = 0; i < length; i++) {
+                    if (i == x.length)
+                        x = Arrays.copyOf(x, (int) Math.min(length, 2L * x.length));
+                    x[i] = in.readLong();
+                }
+                return x;
+            }
+        };
+    }
+
+    /**
+     * Read the length of an array. The arrays are grown while they are read, so a corrupted length fails at the end
+     * of the input instead of allocating it at once.
+     * @param in the input.
+     * @return the length.
+     * @throws IOException if the length is negative.
+     */
+    static
+    int readLength(DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0)
+            throw new IOException("The length of an array cannot be negative.");
+        return length;
+    }
+}
@@ -0,0 +1,78 @@
+package algorithms;
+
+/**
+ * Criterion stopping the genetic algorithm before the maximum number of generations.
+ * @param <T> The individuals' type.
+ */
+@FunctionalInterface
+public
+interface StoppingCriterion<T> {
+
+    /**
+     * Check if the run must stop.
+     * @param s the statistics of the last generation.
+     * @return true if the run must stop.
+     */
+    boolean shouldStop(GenerationStatistics<T> s);
+
+    /**
+     * Forget the state of the previous run, called at the beginning of each run.
+     */
+    default
+    void reset() {
+    }
+
+    /**
+     * Stop as soon as an individual reaches a target fitness.
+     * @param target the target fitness.
+     * @param <T> The individuals' type.
+     * @return the criterion.
+     */
+    static <T>
+    StoppingCriterion<T> targetFitness(final double target) {
+        return (GenerationStatistics<T> s) -> s.getBest().getFitness() >= target;
+    }
+
+    /**
+     * Stop when the best fitness has not improved during k generations.
+     * @param k the number of generations without improvement.
+     * @param <T> The individuals' type.
+     * @return the criterion.
+     */
+    static <T>
+    StoppingCriterion<T> stall(final int k) {
+        return new StoppingCriterion<T>() {
+
+            private double best = Double.NEGATIVE_INFINITY;
+            private int lastImprovement = 0;
+
+            @Override
+            public
+            boolean shouldStop(GenerationStatistics<T> s) {
+                if (s.getBest().getFitness() > best) {
+                    best = s.getBest().getFitness();
+                    lastImprovement = s.getGeneration();
+                }
+                return s.getGeneration() - lastImprovement >= k;
+            }
+
+            @Override
+            public
+            void reset() {
+                best = Double.NEGATIVE_INFINITY;
+                lastImprovement = 0;
+            }
+        };
+    }
+
+    /**
+     * Stop when the run exceeds a time budget.
+     * @param millis the time budget (in milliseconds).
+     * @param <T> The individuals' type.
+     * @return the criterion.
+     */
+    static <T>
+    StoppingCriterion<T> timeBudget(final long millis) {
+        return (GenerationStatistics<T> s) -> s.getWallTime() >= millis * 1000000L;
+    }
+}
@@ -0,0 +1,303 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the explicit tau-leaping (Cao, Gillespie & Petzold), an approximate stochastic simulation
+ * algorithm firing a Poisson distributed number of each reaction per leap.
+ * The leap size is chosen so that no propensity changes by more than a fraction epsilon. The reactions close to
+ * exhausting a reactant (critical) fire at most once per leap, and the exact algorithm takes over when the leap would be
+ * too small to be worth it (i.e. when the counts are low).
+ */
+public
+class TauLeaping {
+
+    private final Gillespie.SpeciesNetwork s;
+    private final RandomSource r;
+    private double epsilon;
+    private int criticalThreshold = 10;
+    private double exactThreshold = 10;
+    private int exactSteps = 100;
+
+    // Sparse stoichiometry: the species changed by each reaction and the change.
+    private final int[][] species;
+    private final int[][] change;
+    private final double[] highestOrder;
+
+    private final double[] a;
+    private final boolean[] critical;
+    private final long[] k;
+    private final long[] x;
+    private final long[] dx;
+    private final double[] mu;
+    private final double[] sigma2;
+
+    private double time = 0;
+    private long leaps = 0;
+    private long steps = 0;
+
+    /**
+     * Construct the engine.
+     * @param s the species network.
+     * @param epsilon the error control parameter, the maximum relative change of the propensities during a leap.
+     * @param r the random number generator.
+     */
+    public
+    TauLeaping(Gillespie.SpeciesNetwork s, final double epsilon, RandomSource r) {
+        if (!(epsilon > 0 && epsilon < 1))
+            throw new IllegalArgumentException("The error control parameter must be in ]0; 1[.");
+        this.s = s;
+        this.r = r;
+        this.epsilon = epsilon;
+        final int nr = s.getReactionCount();
+        final int ns = s.getSpeciesCount();
+        species = new int[nr][];
+        change = new int[nr][];
+        for (int j = 0; j < nr; j++) {
+            final int[] v = s.getChange(j);
+            int nz = 0;
+            for (int c : v) {
+                if (c != 0)
+                    ++nz;
+            }
+            species[j] = new int[nz];
+            change[j] = new int[nz];
+            nz = 0;
+            for (int i = 0; i < v.length; i++) {
+                if (v[i] != 0) {
+                    species[j][nz] = i;
+                    change[j][nz] = v[i];
+                    ++nz;
+                }
+            }
+        }
+        highestOrder = new double[ns];
+        for (int i = 0; i < ns; i++)
+            highestOrder[i] = s.getHighestOrder(i);
+        a = new double[nr];
+        critical = new boolean[nr];
+        k = new long[nr];
+        x = new long[ns];
+        dx = new long[ns];
+        mu = new double[ns];
+        sigma2 = new double[ns];
+    }
+
+    /**
+     * Change the error control parameter.
+     * @param epsilon the maximum relative change of the propensities during a leap.
+     */
+    public
+    void setEpsilon(final double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1))
+            throw new IllegalArgumentException("The error control parameter must be in ]0; 1[.");
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Change the fallback to the exact algorithm.
+     * @param criticalThreshold a reaction is critical if it can exhaust a reactant in fewer firings.
+     * @param exactThreshold the exact algorithm is used when a leap is shorter than exactThreshold exact steps.
+     * @param exactSteps the number of exact steps run instead of such a leap.
+     */
+    public
+    void setExactFallback(final int criticalThreshold, final double exactThreshold, final int exactSteps) {
+        this.criticalThreshold = criticalThreshold;
+        this.exactThreshold = exactThreshold;
+        this.exactSteps = exactSteps;
+    }
+
+    /**
+     * Getter.
+     * @return the current time of the system.
+     */
+    public
+    double getTime() {
+        return time;
+    }
+
+    /**
+     * Getter.
+     * @return the number of leaps run so far.
+     */
+    public
+    long getLeaps() {
+        return leaps;
+    }
+
+    /**
+     * Getter.
+     * @return the number of exact steps run so far.
+     */
+    public
+    long getExactSteps() {
+        return steps;
+    }
+
+    /**
+     * Move the system to a time, the state at this time is approximated.
+     * @param t the time.
+     */
+    public
+    void advanceTo(final double t) {
+        while (time < t) {
+            if (!step(t)) {
+                time = t;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Run one leap, or a batch of exact steps if the counts are too low to leap.
+     * @param tMax the time that must not be exceeded.
+     * @return false if no reaction can fire anymore.
+     */
+    public
+    boolean step(final double tMax) {
+        for (int i = 0; i < x.length; i++)
+            x[i] = s.getSpecies(i);
+        double a0 = 0;
+        double a0c = 0;
+        for (int j = 0; j < a.length; j++) {
+            a[j] = s.getPropensity(j);
+            a0 += a[j];
+            // A reaction is critical if it can exhaust one of its reactants in less than criticalThreshold firings.
+            long l = Long.MAX_VALUE;
+            for (int q = 0; q < species[j].length; q++) {
+                if (change[j][q] < 0)
+                    l = Math.min(l, x[species[j][q]] / -change[j][q]);
+            }
+            critical[j] = a[j] > 0 && l < criticalThreshold;
+            if (critical[j])
+                a0c += a[j];
+        }
+        if (!(a0 > 0))
+            return false;
+        double tau1 = leapSize();
+        if (tau1 < exactThreshold / a0)
+            return exact(tMax);
+        while (true) {
+            final double tau2 = (a0c > 0) ? r.nextExponential() / a0c : Double.POSITIVE_INFINITY;
+            double tau = Math.min(tau1, tau2);
+            boolean fireCritical = tau2 <= tau1;
+            if (tau == Double.POSITIVE_INFINITY && tMax == Double.POSITIVE_INFINITY)
+                return exact(tMax);
+            if (time + tau > tMax) {
+                tau = tMax - time;
+                fireCritical = false;
+            }
+            // Draw the number of firings of each reaction.
+            int c = -1;
+            if (fireCritical) {
+                double u = r.nextDouble() * a0c;
+                for (int j = 0; j < a.length && c == -1; j++) {
+                    if (critical[j]) {
+                        u -= a[j];
+                        if (u < 0)
+                            c = j;
+                    }
+                }
+                if (c == -1)
+                    c = lastCritical();
+            }
+            Arrays.fill(dx, 0);
+            for (int j = 0; j < a.length; j++) {
+                k[j] = critical[j] ? ((j == c) ? 1 : 0) : r.nextPoisson(a[j] * tau);
+                for (int q = 0; q < species[j].length; q++)
+                    dx[species[j][q]] += k[j] * change[j][q];
+            }
+            // A leap making a count negative is rejected and the leap size halved.
+            boolean valid = true;
+            for (int i = 0; i < x.length && valid; i++)
+                valid = x[i] + dx[i] >= 0;
+            if (!valid) {
+                tau1 = Math.min(tau1, tau) / 2;
+                // Once the leaps are too small to pay off, the step falls back to the exact algorithm.
+                if (tau1 < exactThreshold / a0)
+                    return exact(tMax);
+                continue;
+            }
+            for (int j = 0; j < a.length; j++) {
+                if (k[j] > 0)
+                    s.apply(j, k[j]);
+            }
+            time += tau;
+            ++leaps;
+            return true;
+        }
+    }
+
+    /**
+     * Compute the largest leap such that the propensities of the non-critical reactions change by less than epsilon.
+     * @return the leap size.
+     */
+    private
+    double leapSize() {
+        Arrays.fill(mu, 0);
+        Arrays.fill(sigma2, 0);
+        for (int j = 0; j < a.length; j++) {
+            if (critical[j] || a[j] <= 0)
+                continue;
+            for (int q = 0; q < species[j].length; q++) {
+                final int v = change[j][q];
+                mu[species[j][q]] += v * a[j];
+                sigma2[species[j][q]] += (double) v * v * a[j];
+            }
+        }
+        double tau = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < x.length; i++) {
+            final double bound = Math.max(epsilon * x[i] / highestOrder[i], 1);
+            if (mu[i] != 0)
+                tau = Math.min(tau, bound / Math.abs(mu[i]));
+            if (sigma2[i] != 0)
+                tau = Math.min(tau, bound * bound / sigma2[i]);
+        }
+        return tau;
+    }
+
+    /**
+     * Return the last critical reaction, used when a rounding error makes the sampling overshoot.
+     * @return the index of the reaction.
+     */
+    private
+    int lastCritical() {
+        for (int j = a.length - 1; j >= 0; j--) {
+            if (critical[j])
+                return j;
+        }
+        return -1;
+    }
+
+    /**
+     * Run a batch of exact steps (direct method).
+     * @param tMax the time that must not be exceeded.
+     * @return false if no reaction can fire anymore.
+     */
+    private
+    boolean exact(final double tMax) {
+        for (int n = 0; n < exactSteps; n++) {
+            double a0 = 0;
+            for (int j = 0; j < a.length; j++) {
+                a[j] = s.getPropensity(j);
+                a0 += a[j];
+            }
+            if (!(a0 > 0))
+                return n != 0;
+            final double dt = r.nextExponential() / a0;
+            if (time + dt > tMax) {
+                // No reaction before tMax, the waiting time is memoryless so the draw can be dropped.
+                time = tMax;
+                return true;
+            }
+            double u = r.nextDouble() * a0;
+            int j = 0;
+            while (j < a.length - 1 && (a[j] == 0 || (u -= a[j]) >= 0))
+                ++j;
+            s.apply(j);
+            time += dt;
+            ++steps;
+        }
+        return true;
+    }
+}
@@ -1,7 +1,11 @@
 package algorithms;
 
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Implementation of the tower sampling algorithm (rates & probabilities).
+ * When many samples are drawn from the same distribution, prepare it once with the alias method instead.
  */
 public
 class TowerSampling {
@@ -13,13 +17,24 @@ class TowerSampling {
      */
     public static
     int rate(final float[] rates) {
+        return rate(rates, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Run the Tower Sampling on an array of rates.
+     * @param rates the array of rates.
+     * @param r the random number generator.
+     * @return the index of the selected action/state.
+     */
+    public static
+    int rate(final float[] rates, Random r) {
         float[] probabilities = new float[rates.length];
         float s = 0;
         for (float rate : rates)
             s += rate;
         for (int i = 0; i < rates.length; i++)
             probabilities[i] = rates[i] / s;
-        return TowerSampling.probability(probabilities);
+        return TowerSampling.probability(probabilities, r);
     }
 
     /**
@@ -29,13 +44,35 @@ class TowerSampling {
      */
     public static
     int probability(final float[] probabilities) {
-        Float r = (float) Math.random(); // Draw a random number between 0 and 1.
-        Float sum = 0F;
+        return probability(probabilities, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Run the Tower Sampling on an array of probabilities.
+     * @param probabilities the array of probabilities.
+     * @param r the random number generator.
+     * @return the index of the selected action/state.
+     */
+    public static
+    int probability(final float[] probabilities, Random r) {
+        final float u = r.nextFloat(); // Draw a random number between 0 and 1.
+        float sum = 0F;
         for (int i = 0; i < probabilities.length; i++) {
             sum += probabilities[i];
-            if (sum >= r)
+            if (sum >= u)
                 return i;
         }
         return probabilities.length - 1;
     }
+
+    /**
+     * Prepare a distribution to draw many samples from it in constant time (alias method).
+     * @param rates the array of rates.
+     * @param r the random number generator.
+     * @return the prepared distribution.
+     */
+    public static
+    AliasSampler prepare(final double[] rates, RandomSource r) {
+        return new AliasSampler(rates, r);
+    }
 }
@@ -0,0 +1,225 @@
+package algorithms;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read back, row by row, a trajectory written by TrajectoryRecorder (the format is detected from the file).
+ * The blocks of a binary file are mapped one at a time, so the size of the file is not limited by a single mapping.
+ */
+public
+class TrajectoryReader implements Closeable {
+
+    private final int nbSpecies;
+    private final FileChannel channel;
+    private long position = TrajectoryRecorder.HEADER;
+    private final BufferedReader csv;
+    private final long declaredRows;
+    private double[] times = new double[0];
+    private long[][] species;
+    private int size = 0;
+    private int row = -1;
+
+    /**
+     * Open a trajectory.
+     * @param file the file written by a TrajectoryRecorder.
+     * @throws IOException if the file cannot be read or is not a trajectory.
+     */
+    public
+    TrajectoryReader(File file) throws IOException {
+        int magic = 0;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (file.length() >= TrajectoryRecorder.HEADER)
+                magic = in.readInt();
+        }
+        if (magic == TrajectoryRecorder.MAGIC) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            csv = null;
+            ByteBuffer header = read(0, TrajectoryRecorder.HEADER);
+            header.getInt();
+            if (header.getInt() != TrajectoryRecorder.VERSION)
+                throw new IOException(file + " has an unsupported version.");
+            nbSpecies = header.getInt();
+            header.getInt();
+            declaredRows = header.getLong();
+            if (nbSpecies < 0)
+                throw new IOException(file + " is not a trajectory.");
+        } else {
+            channel = null;
+            csv = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII),
+                    1 << 16);
+            final String header = csv.readLine();
+            if (header == null || !header.startsWith("time"))
+                throw new IOException(file + " is not a trajectory.");
+            nbSpecies = header.split(",", -1).length - 1;
+            declaredRows = -1;
+        }
+        species = new long[nbSpecies][0];
+    }
+
+    /**
+     * Getter.
+     * @return the number of species.
+     */
+    public
+    int getSpeciesCount() {
+        return nbSpecies;
+    }
+
+    /**
+     * Getter.
+     * @return the number of rows of a binary file which has been closed properly, -1 otherwise.
+     */
+    public
+    long getRows() {
+        return declaredRows;
+    }
+
+    /**
+     * Move to the next row.
+     * @return false if there is no row anymore.
+     * @throws IOException if the file cannot be read.
+     */
+    public
+    boolean next() throws IOException {
+        if (++row < size)
+            return true;
+        row = 0;
+        size = 0;
+        return (channel != null) ? readBlock() : readLine();
+    }
+
+    /**
+     * Getter.
+     * @return the time of the current row.
+     */
+    public
+    double getTime() {
+        check();
+        return times[row];
+    }
+
+    /**
+     * Getter.
+     * @param i the index of the species.
+     * @return the count of the species in the current row.
+     */
+    public
+    long getSpecies(final int i) {
+        check();
+        return species[i][row];
+    }
+
+    /**
+     * Copy the species counts of the current row.
+     * @param state the array receiving the counts.
+     */
+    public
+    void getState(final long[] state) {
+        check();
+        for (int i = 0; i < nbSpecies; i++)
+            state[i] = species[i][row];
+    }
+
+    @Override
+    public
+    void close() throws IOException {
+        if (channel != null)
+            channel.close();
+        else
+            csv.close();
+    }
+
+    /**
+     * Read the next block of a binary file.
+     * @return false if there is no block anymore.
+     * @throws IOException if the block is truncated.
+     */
+    private
+    boolean readBlock() throws IOException {
+        while (channel.size() - position >= 8) {
+            final long n = read(position, 8).getLong();
+            // A block is at most one mapping, as written by the recorder.
+            if (n < 0 || n > Integer.MAX_VALUE / 8 / (nbSpecies + 1L))
+                throw new IOException("The trajectory is corrupted.");
+            final long bytes = 8 * n * (nbSpecies + 1);
+            if (channel.size() - position - 8 < bytes)
+                throw new IOException("The trajectory is truncated.");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position + 8, bytes);
+            position += 8 + bytes;
+            size = (int) n;
+            if (times.length < size) {
+                times = new double[size];
+                species = new long[nbSpecies][size];
+            }
+            mapped.asDoubleBuffer().get(times, 0, size);
+            mapped.position(mapped.position() + 8 * size);
+            for (int i = 0; i < nbSpecies; i++) {
+                mapped.asLongBuffer().get(species[i], 0, size);
+                mapped.position(mapped.position() + 8 * size);
+            }
+            if (size > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read bytes of a binary file.
+     * @param at the position of the first byte.
+     * @param length the number of bytes.
+     * @return the bytes, ready to be read.
+     * @throws IOException if the file is too short.
+     */
+    private
+    ByteBuffer read(final long at, final int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, at + buffer.position()) < 0)
+                throw new IOException("The trajectory is truncated.");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read the next line of a CSV file.
+     * @return false if there is no line anymore.
+     * @throws IOException if the line is not a row.
+     */
+    private
+    boolean readLine() throws IOException {
+        final String line = csv.readLine();
+        if (line == null || line.isEmpty())
+            return false;
+        if (times.length == 0) {
+            times = new double[1];
+            species = new long[nbSpecies][1];
+        }
+        final String[] cells = line.split(",", -1);
+        if (cells.length != nbSpecies + 1)
+            throw new IOException("The row \"" + line + "\" does not have " + (nbSpecies + 1) + " columns.");
+        try {
+            times[0] = Double.parseDouble(cells[0]);
+            for (int i = 0; i < nbSpecies; i++)
+                species[i][0] = Long.parseLong(cells[i + 1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("The row \"" + line + "\" is not valid.", e);
+        }
+        size = 1;
+        return true;
+    }
+
+    /**
+     * Check that the reader is on a row.
+     */
+    private
+    void check() {
+        if (row < 0 || row >= size)
+            throw new IllegalStateException("There is no current row, call next first.");
+    }
+}
@@ -0,0 +1,279 @@
+package algorithms;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Record the (time, species counts) rows of a trajectory without formatting them on the simulation thread.
+ * The rows are copied into a preallocated columnar buffer, full buffers are written on a background thread while the
+ * simulation fills the other one.
+ * The binary format is a header followed by blocks, each block holding the number of rows, the column of the times and
+ * one column per species. It can be read back with TrajectoryReader.
+ */
+public
+class TrajectoryRecorder implements Closeable {
+
+    static final int MAGIC = 0x47535452;
+    static final int VERSION = 1;
+    static final int HEADER = 24;
+
+    /**
+     * Format of the recorded file.
+     */
+    public enum Format {
+        /** Memory-mapped columnar blocks. */
+        BINARY,
+        /** One line per row, the first line names the columns. */
+        CSV
+    }
+
+    /**
+     * Buffer of rows, one array per column.
+     */
+    private static
+    class Block {
+        final double[] times;
+        final long[][] species;
+        int size = 0;
+
+        /**
+         * Construct an empty block.
+         * @param nbSpecies the number of species.
+         * @param capacity the number of rows.
+         */
+        Block(final int nbSpecies, final int capacity) {
+            times = new double[capacity];
+            species = new long[nbSpecies][capacity];
+        }
+    }
+
+    private final int nbSpecies;
+    private final Format format;
+    private final FileChannel channel;
+    private final Writer csv;
+    private final ExecutorService writer;
+    private Block front;
+    private Block back;
+    private Future<?> pending = null;
+    private long position = HEADER;
+    private long rows = 0;
+    private boolean closed = false;
+
+    /**
+     * Construct the recorder with buffers of 4096 rows.
+     * @param file the file, it is replaced if it exists.
+     * @param nbSpecies the number of species.
+     * @param format the format of the file.
+     * @throws IOException if the file cannot be created.
+     */
+    public
+    TrajectoryRecorder(File file, final int nbSpecies, Format format) throws IOException {
+        this(file, nbSpecies, format, 4096);
+    }
+
+    /**
+     * Construct the recorder.
+     * @param file the file, it is replaced if it exists.
+     * @param nbSpecies the number of species.
+     * @param format the format of the file.
+     * @param capacity the number of rows of each of the two buffers.
+     * @throws IOException if the file cannot be created.
+     */
+    public
+    TrajectoryRecorder(File file, final int nbSpecies, Format format, final int capacity) throws IOException {
+        if (nbSpecies < 0 || capacity < 1)
+            throw new IllegalArgumentException("The number of species and the capacity must be positive.");
+        this.nbSpecies = nbSpecies;
+        this.format = format;
+        this.front = new Block(nbSpecies, capacity);
+        this.back = new Block(nbSpecies, capacity);
+        if (format == Format.BINARY) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            csv = null;
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(nbSpecies).putInt(0).putLong(-1).flip();
+            while (header.hasRemaining())
+                channel.write(header);
+        } else {
+            channel = null;
+            csv = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII),
+                    1 << 16);
+            csv.write("time");
+            for (int i = 0; i < nbSpecies; i++)
+                csv.write(",x" + i);
+            csv.write('\n');
+        }
+        writer = Executors.newSingleThreadExecutor((Runnable task) -> {
+            Thread t = new Thread(task, "trajectory-recorder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Getter.
+     * @return the number of species.
+     */
+    public
+    int getSpeciesCount() {
+        return nbSpecies;
+    }
+
+    /**
+     * Getter.
+     * @return the number of rows recorded so far.
+     */
+    public
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * Record a row.
+     * @param time the time of the system.
+     * @param state the species counts.
+     */
+    public
+    void record(final double time, final long[] state) {
+        if (state.length != nbSpecies)
+            throw new IllegalArgumentException("The state must have " + nbSpecies + " species.");
+        final int j = next(time);
+        for (int i = 0; i < nbSpecies; i++)
+            front.species[i][j] = state[i];
+    }
+
+    /**
+     * Record the current state of a network.
+     * @param time the time of the system.
+     * @param s the species network.
+     */
+    public
+    void record(final double time, Gillespie.SpeciesNetwork s) {
+        final int j = next(time);
+        for (int i = 0; i < nbSpecies; i++)
+            front.species[i][j] = s.getSpecies(i);
+    }
+
+    /**
+     * Write the buffered rows on the background thread, without waiting for them to be written.
+     */
+    public
+    void flush() {
+        if (front.size == 0)
+            return;
+        await();
+        final Block full = front;
+        front = back;
+        back = full;
+        pending = writer.submit(() -> {
+            write(full);
+            full.size = 0;
+            return null;
+        });
+    }
+
+    /**
+     * Write the buffered rows, wait for them to be written and close the file.
+     * @throws IOException if the rows cannot be written.
+     */
+    @Override
+    public
+    void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            flush();
+            await();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            writer.shutdown();
+            if (channel != null) {
+                ByteBuffer count = ByteBuffer.allocate(8);
+                count.putLong(rows).flip();
+                channel.write(count, HEADER - 8);
+                channel.close();
+            } else {
+                csv.close();
+            }
+        }
+    }
+
+    /**
+     * Reserve the next row, the full buffer is handed to the background thread first.
+     * @param time the time of the row.
+     * @return the index of the row in the current buffer.
+     */
+    private
+    int next(final double time) {
+        if (closed)
+            throw new IllegalStateException("The recorder is closed.");
+        if (front.size == front.times.length)
+            flush();
+        front.times[front.size] = time;
+        ++rows;
+        return front.size++;
+    }
+
+    /**
+     * Wait for the block being written.
+     */
+    private
+    void await() {
+        if (pending == null)
+            return;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The recorder has been interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("The trajectory cannot be written.", (e.getCause() instanceof IOException) ?
+                    (IOException) e.getCause() : new IOException(e.getCause()));
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Write a block at the end of the file.
+     * @param b the block.
+     * @throws IOException if the block cannot be written.
+     */
+    private
+    void write(Block b) throws IOException {
+        final int n = b.size;
+        if (format == Format.CSV) {
+            StringBuilder sb = new StringBuilder(32 * (nbSpecies + 1));
+            for (int j = 0; j < n; j++) {
+                sb.setLength(0);
+                sb.append(b.times[j]);
+                for (int i = 0; i < nbSpecies; i++)
+                    sb.append(',').append(b.species[i][j]);
+                sb.append('\n');
+                csv.append(sb);
+            }
+            return;
+        }
+        final long size = 8L + 8L * n * (nbSpecies + 1);
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        out.putLong(n);
+        out.asDoubleBuffer().put(b.times, 0, n);
+        out.position(out.position() + 8 * n);
+        for (int i = 0; i < nbSpecies; i++) {
+            out.asLongBuffer().put(b.species[i], 0, n);
+            out.position(out.position() + 8 * n);
+        }
+        position += size;
+    }
+}